@@ -0,0 +1,114 @@
+package me.notjoshx.dhoomarenas;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import me.notjoshx.dhoomarenas.managers.ArenaManager;
+import me.notjoshx.dhoomarenas.models.Arena;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Headless Bukkit server shared by the benchmarks, backed by MockBukkit
+ */
+public final class BenchmarkServer {
+    public static final String WORLD = "world";
+    public static final int ARENA_SIZE = 48;
+    public static final int ARENA_SPACING = 64;
+    public static final int GRID_WIDTH = 100;
+
+    private BenchmarkServer() {
+    }
+
+    /**
+     * Start a mocked server with a single world
+     * @return Mocked server
+     */
+    public static ServerMock start() {
+        ServerMock server = MockBukkit.mock();
+        server.addSimpleWorld(WORLD);
+        return server;
+    }
+
+    /**
+     * Load the plugin into the mocked server and wait until its arenas are loaded
+     * @param server Mocked server
+     * @return Plugin instance
+     */
+    public static DhoomArenas loadPlugin(ServerMock server) {
+        DhoomArenas plugin = MockBukkit.load(DhoomArenas.class);
+        while (!plugin.getArenaManager().isLoaded()) {
+            server.getScheduler().performOneTick();
+        }
+        return plugin;
+    }
+
+    /**
+     * Stop the mocked server, disabling the plugin
+     */
+    public static void stop() {
+        MockBukkit.unmock();
+    }
+
+    /**
+     * Get the name of the n-th benchmark arena
+     * @param index Arena index
+     * @return Arena name
+     */
+    public static String arenaName(int index) {
+        return "arena-" + index;
+    }
+
+    /**
+     * Get a location inside the n-th benchmark arena. Arenas are laid out on a grid without overlapping.
+     * @param world World
+     * @param index Arena index
+     * @param offset Offset from the arena's minimum corner on each axis
+     * @return Location
+     */
+    public static Location arenaLocation(World world, int index, int offset) {
+        int x = (index % GRID_WIDTH) * ARENA_SPACING + offset;
+        int z = (index / GRID_WIDTH) * ARENA_SPACING + offset;
+        return new Location(world, x, 64 + Math.min(offset, 32), z);
+    }
+
+    /**
+     * Create fully set up arenas through the arena manager
+     * @param manager Arena manager
+     * @param world World
+     * @param count Number of arenas
+     */
+    public static void createArenas(ArenaManager manager, World world, int count) {
+        for (int i = 0; i < count; i++) {
+            String name = arenaName(i);
+            manager.createArena(name);
+            manager.setPosition1(name, arenaLocation(world, i, 0));
+            manager.setPosition2(name, arenaLocation(world, i, ARENA_SIZE));
+            manager.setCenter(name, arenaLocation(world, i, ARENA_SIZE / 2));
+            manager.setMaxPlayers(name, 4);
+            for (int point = 1; point <= 4; point++) {
+                manager.setSpawnPoint(name, point, arenaLocation(world, i, point * 8));
+            }
+        }
+    }
+
+    /**
+     * Build a fully set up arena in memory, without touching disk
+     * @param folder Folder its file would live in
+     * @param world World
+     * @param index Arena index
+     * @return Arena
+     */
+    public static Arena buildArena(File folder, World world, int index) {
+        Map<Integer, Location> spawnPoints = new HashMap<>();
+        for (int point = 1; point <= 4; point++) {
+            spawnPoints.put(point, arenaLocation(world, index, point * 8));
+        }
+        return new Arena(arenaName(index), new File(folder, arenaName(index) + ".yml"), 4, 10,
+                arenaLocation(world, index, 0), arenaLocation(world, index, ARENA_SIZE),
+                arenaLocation(world, index, ARENA_SIZE / 2), spawnPoints);
+    }
+}
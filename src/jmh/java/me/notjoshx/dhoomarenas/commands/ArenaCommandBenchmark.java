@@ -0,0 +1,85 @@
+package me.notjoshx.dhoomarenas.commands;
+
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import me.notjoshx.dhoomarenas.BenchmarkServer;
+import me.notjoshx.dhoomarenas.DhoomArenas;
+import org.bukkit.Location;
+import org.bukkit.command.Command;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tab completion and formatting paths of {@link ArenaCommand}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ArenaCommandBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int arenaCount;
+
+    private ArenaCommand arenaCommand;
+    private Command command;
+    private PlayerMock player;
+    private String[] arenaNames;
+    private Location location;
+
+    @Setup
+    public void setUp() {
+        ServerMock server = BenchmarkServer.start();
+        DhoomArenas plugin = BenchmarkServer.loadPlugin(server);
+        BenchmarkServer.createArenas(plugin.getArenaManager(), server.getWorld(BenchmarkServer.WORLD), arenaCount);
+
+        arenaCommand = new ArenaCommand(plugin);
+        command = plugin.getCommand("dhoomarenas");
+        player = server.addPlayer();
+        arenaNames = plugin.getArenaManager().getArenaNames().toArray(new String[0]);
+        location = BenchmarkServer.arenaLocation(server.getWorld(BenchmarkServer.WORLD), arenaCount / 2, 17);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    public List<String> tabCompleteAllArenas() {
+        return arenaCommand.onTabComplete(player, command, "dhoomarenas", new String[]{"tp", ""});
+    }
+
+    @Benchmark
+    public List<String> tabCompletePrefix() {
+        return arenaCommand.onTabComplete(player, command, "dhoomarenas", new String[]{"tp", "arena-12"});
+    }
+
+    @Benchmark
+    public List<String> tabCompleteNoMatch() {
+        return arenaCommand.onTabComplete(player, command, "dhoomarenas", new String[]{"info", "zzz"});
+    }
+
+    @Benchmark
+    public List<String> tabCompleteSubCommand() {
+        return arenaCommand.onTabComplete(player, command, "dhoomarenas", new String[]{"se"});
+    }
+
+    @Benchmark
+    public List<String> filterCompletions() {
+        return ArenaCommand.filterCompletions("arena-12", arenaNames);
+    }
+
+    @Benchmark
+    public String formatLocation() {
+        return ArenaCommand.formatLocation(location);
+    }
+}
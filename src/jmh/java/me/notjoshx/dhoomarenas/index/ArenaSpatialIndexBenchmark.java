@@ -0,0 +1,97 @@
+package me.notjoshx.dhoomarenas.index;
+
+import be.seeseemelk.mockbukkit.ServerMock;
+import me.notjoshx.dhoomarenas.BenchmarkServer;
+import me.notjoshx.dhoomarenas.models.Arena;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point lookups through {@link ArenaSpatialIndex} compared to scanning every arena's bounds
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ArenaSpatialIndexBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"100", "1000", "10000"})
+    public int arenaCount;
+
+    private ArenaSpatialIndex index;
+    private List<Arena> arenas;
+    private Location[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ServerMock server = BenchmarkServer.start();
+        World world = server.getWorld(BenchmarkServer.WORLD);
+        File folder = new File("build/tmp/jmh-arenas");
+
+        arenas = new ArrayList<>(arenaCount);
+        for (int i = 0; i < arenaCount; i++) {
+            arenas.add(BenchmarkServer.buildArena(folder, world, i));
+        }
+        index = new ArenaSpatialIndex();
+        index.rebuild(arenas);
+
+        // Mix of hits inside arenas and misses in the gaps between them
+        SplittableRandom random = new SplittableRandom(42L);
+        queries = new Location[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            int arena = random.nextInt(arenaCount);
+            int offset = random.nextInt(BenchmarkServer.ARENA_SPACING);
+            queries[i] = BenchmarkServer.arenaLocation(world, arena, offset);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    private Location nextQuery() {
+        Location query = queries[next];
+        next = (next + 1) & (QUERIES - 1);
+        return query;
+    }
+
+    @Benchmark
+    public Arena indexed() {
+        return index.getArenaAt(nextQuery());
+    }
+
+    @Benchmark
+    public Arena linearScan() {
+        Location query = nextQuery();
+        int x = query.getBlockX();
+        int y = query.getBlockY();
+        int z = query.getBlockZ();
+        for (Arena arena : arenas) {
+            Location pos1 = arena.getPos1();
+            Location pos2 = arena.getPos2();
+            if (x >= Math.min(pos1.getBlockX(), pos2.getBlockX()) && x <= Math.max(pos1.getBlockX(), pos2.getBlockX())
+                    && y >= Math.min(pos1.getBlockY(), pos2.getBlockY()) && y <= Math.max(pos1.getBlockY(), pos2.getBlockY())
+                    && z >= Math.min(pos1.getBlockZ(), pos2.getBlockZ()) && z <= Math.max(pos1.getBlockZ(), pos2.getBlockZ())) {
+                return arena;
+            }
+        }
+        return null;
+    }
+}
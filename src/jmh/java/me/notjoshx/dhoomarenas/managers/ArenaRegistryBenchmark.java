@@ -0,0 +1,96 @@
+package me.notjoshx.dhoomarenas.managers;
+
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import me.notjoshx.dhoomarenas.BenchmarkServer;
+import me.notjoshx.dhoomarenas.DhoomArenas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry lookups and teleport target resolution on {@link ArenaManager}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ArenaRegistryBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int arenaCount;
+
+    private ArenaManager manager;
+    private PlayerMock player;
+    private String[] names;
+    private String[] missing;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ServerMock server = BenchmarkServer.start();
+        DhoomArenas plugin = BenchmarkServer.loadPlugin(server);
+        manager = plugin.getArenaManager();
+        BenchmarkServer.createArenas(manager, server.getWorld(BenchmarkServer.WORLD), arenaCount);
+        player = server.addPlayer();
+
+        names = new String[arenaCount];
+        missing = new String[arenaCount];
+        for (int i = 0; i < arenaCount; i++) {
+            names[i] = BenchmarkServer.arenaName(i);
+            missing[i] = "missing-" + i;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == arenaCount ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public Object getArenaHit() {
+        return manager.getArena(names[nextIndex()]);
+    }
+
+    @Benchmark
+    public Object getArenaMiss() {
+        return manager.getArena(missing[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean arenaExistsHit() {
+        return manager.arenaExists(names[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean arenaExistsMiss() {
+        return manager.arenaExists(missing[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean teleportToCenter() {
+        return manager.teleportToArena(player, names[nextIndex()], -1);
+    }
+
+    @Benchmark
+    public boolean teleportToSpawnPoint() {
+        return manager.teleportToArena(player, names[nextIndex()], 2);
+    }
+
+    @Benchmark
+    public boolean teleportToMissingArena() {
+        return manager.teleportToArena(player, missing[nextIndex()], -1);
+    }
+}
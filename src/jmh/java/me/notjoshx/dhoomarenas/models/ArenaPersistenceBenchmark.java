@@ -0,0 +1,91 @@
+package me.notjoshx.dhoomarenas.models;
+
+import be.seeseemelk.mockbukkit.ServerMock;
+import me.notjoshx.dhoomarenas.BenchmarkServer;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Loading arena files and writing them back, for a whole arena folder at a time
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ArenaPersistenceBenchmark {
+    @Param({"1", "100", "1000", "10000"})
+    public int arenaCount;
+
+    private File folder;
+    private File[] files;
+    private Arena[] arenas;
+
+    @Setup
+    public void setUp() throws IOException {
+        ServerMock server = BenchmarkServer.start();
+        World world = server.getWorld(BenchmarkServer.WORLD);
+        folder = Files.createTempDirectory("dhoomarenas-bench").toFile();
+
+        files = new File[arenaCount];
+        arenas = new Arena[arenaCount];
+        for (int i = 0; i < arenaCount; i++) {
+            Arena arena = BenchmarkServer.buildArena(folder, world, i);
+            arena.saveConfig();
+            files[i] = arena.getConfigFile();
+            arenas[i] = new Arena(arena.getName(), files[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkServer.stop();
+        try (Stream<Path> walk = Files.walk(folder.toPath())) {
+            walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public void load(Blackhole blackhole) {
+        for (File file : files) {
+            blackhole.consume(new Arena(file.getName().replace(".yml", ""), file));
+        }
+    }
+
+    @Benchmark
+    public void saveConfig() {
+        for (Arena arena : arenas) {
+            arena.saveConfig();
+        }
+    }
+
+    @Benchmark
+    public void saveToString(Blackhole blackhole) {
+        for (Arena arena : arenas) {
+            blackhole.consume(arena.saveToString());
+        }
+    }
+
+    @Benchmark
+    public void roundTrip(Blackhole blackhole) {
+        for (Arena arena : arenas) {
+            arena.saveConfig();
+            blackhole.consume(new Arena(arena.getName(), arena.getConfigFile()));
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package me.notjoshx.dhoomarenas.loadsim;
+
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import me.notjoshx.dhoomarenas.BenchmarkServer;
+import me.notjoshx.dhoomarenas.DhoomArenas;
+import me.notjoshx.dhoomarenas.api.DhoomArenasAPI;
+import me.notjoshx.dhoomarenas.commands.ArenaCommand;
+import me.notjoshx.dhoomarenas.metrics.LatencyHistogram;
+import me.notjoshx.dhoomarenas.teleport.SpawnStrategy;
+import org.bukkit.World;
+import org.bukkit.command.PluginCommand;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Headless load simulation: starts a MockBukkit server with thousands of arenas and simulated players,
+ * drives commands and API calls at configurable rates tick by tick, and reports the time and memory the plugin uses.
+ * Run it with {@code ./gradlew loadSimulation}, passing options as {@code -Pargs="--arenas=5000 --ticks=2400"}.
+ */
+public final class LoadSimulation {
+    private static final String[] SETUP_STEPS = {"pos 1", "pos 2", "center", "spawnpoint 1", "spawnpoint 2", "maxPlayers 4", "waitTime 5s"};
+
+    private final SimulationOptions options;
+    private final Random random;
+    private final Map<Operation, LatencyHistogram> latencies;
+    private final Map<Operation, Integer> errors;
+    private final double[] credits;
+    private final LatencyHistogram tickTimer;
+    private final List<String> simulatedArenas;
+    private final com.sun.management.ThreadMXBean threads;
+    private ServerMock server;
+    private DhoomArenas plugin;
+    private DhoomArenasAPI api;
+    private PluginCommand command;
+    private ArenaCommand arenaCommand;
+    private PlayerMock admin;
+    private List<PlayerMock> players;
+    private World world;
+    private int nextArena;
+    private int setupStep;
+    private long allocatedBytes;
+    private int measuredTicks;
+
+    /**
+     * Create a new simulation
+     * @param options Run settings
+     */
+    public LoadSimulation(SimulationOptions options) {
+        this.options = options;
+        this.random = new Random(options.getSeed());
+        this.latencies = new EnumMap<>(Operation.class);
+        this.errors = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram(operation.name().toLowerCase(Locale.ROOT), "Latency of " + operation));
+            errors.put(operation, 0);
+        }
+        this.credits = new double[Operation.values().length];
+        this.tickTimer = new LatencyHistogram("tick", "Time spent in plugin code per tick");
+        this.simulatedArenas = new ArrayList<>();
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+
+    public static void main(String[] args) throws IOException {
+        SimulationOptions options = SimulationOptions.parse(args);
+        LoadSimulation simulation = new LoadSimulation(options);
+        try {
+            simulation.setUp();
+            simulation.run(options.getWarmupTicks());
+            simulation.resetMeasurements();
+            simulation.run(options.getTicks());
+
+            SimulationReport report = simulation.buildReport();
+            System.out.println(report.toText());
+            report.writeJson(options.getReportFile());
+            System.out.println("Report written to " + options.getReportFile().getPath());
+        } finally {
+            BenchmarkServer.stop();
+        }
+    }
+
+    /**
+     * Start the mocked server, load the plugin and create the initial arenas and players
+     */
+    private void setUp() {
+        long start = System.nanoTime();
+        server = BenchmarkServer.start();
+        plugin = BenchmarkServer.loadPlugin(server);
+        api = DhoomArenasAPI.getInstance();
+        command = plugin.getCommand("dhoomarenas");
+        arenaCommand = (ArenaCommand) command.getExecutor();
+        world = server.getWorld(BenchmarkServer.WORLD);
+
+        BenchmarkServer.createArenas(plugin.getArenaManager(), world, options.getArenas());
+        admin = server.addPlayer();
+        admin.setOp(true);
+        players = new ArrayList<>(options.getPlayers());
+        for (int i = 0; i < options.getPlayers(); i++) {
+            players.add(server.addPlayer());
+        }
+        nextArena = options.getArenas();
+
+        System.out.println("Set up " + options.getArenas() + " arenas and " + options.getPlayers() + " players in "
+                + (System.nanoTime() - start) / 1_000_000L + "ms");
+    }
+
+    /**
+     * Run simulated ticks
+     * @param ticks Number of ticks
+     */
+    private void run(int ticks) {
+        Operation[] operations = Operation.values();
+        for (int tick = 0; tick < ticks; tick++) {
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+
+            for (Operation operation : operations) {
+                // Carry fractional rates over so e.g. 0.25 per tick runs once every four ticks
+                credits[operation.ordinal()] += options.getRate(operation);
+                while (credits[operation.ordinal()] >= 1.0D) {
+                    credits[operation.ordinal()] -= 1.0D;
+                    perform(operation);
+                }
+            }
+            server.getScheduler().performOneTick();
+
+            tickTimer.recordSince(start);
+            allocatedBytes += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            measuredTicks++;
+        }
+    }
+
+    /**
+     * Forget everything measured so far, e.g. after the warmup
+     */
+    private void resetMeasurements() {
+        for (LatencyHistogram histogram : latencies.values()) {
+            histogram.reset();
+        }
+        errors.replaceAll((operation, count) -> 0);
+        tickTimer.reset();
+        plugin.getMetrics().reset();
+        allocatedBytes = 0L;
+        measuredTicks = 0;
+    }
+
+    /**
+     * Perform and time one operation
+     * @param operation Operation
+     */
+    private void perform(Operation operation) {
+        long start = System.nanoTime();
+        try {
+            if (!execute(operation)) {
+                // Nothing to do, e.g. no simulated arena left to delete
+                return;
+            }
+            latencies.get(operation).recordSince(start);
+        } catch (RuntimeException e) {
+            errors.merge(operation, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Perform one operation
+     * @param operation Operation
+     * @return False if there was nothing to perform
+     */
+    private boolean execute(Operation operation) {
+        switch (operation) {
+            case CREATE: {
+                String name = "sim-" + nextArena++;
+                simulatedArenas.add(name);
+                return dispatch("create " + name);
+            }
+            case SETUP: {
+                if (simulatedArenas.isEmpty()) {
+                    return false;
+                }
+                int index = random.nextInt(simulatedArenas.size());
+                String name = simulatedArenas.get(index);
+                int gridIndex = Integer.parseInt(name.substring(4));
+                String step = SETUP_STEPS[setupStep++ % SETUP_STEPS.length];
+                admin.teleport(BenchmarkServer.arenaLocation(world, gridIndex, step.equals("pos 2") ? BenchmarkServer.ARENA_SIZE : 8));
+                return dispatch("setup " + name + " " + step);
+            }
+            case DELETE: {
+                if (simulatedArenas.isEmpty()) {
+                    return false;
+                }
+                String name = simulatedArenas.remove(random.nextInt(simulatedArenas.size()));
+                return dispatch("delete " + name);
+            }
+            case TELEPORT:
+                api.teleportPlayerToArenaSpawnPoint(randomPlayer(), randomArena(), 1 + random.nextInt(4));
+                return true;
+            case TELEPORT_ASYNC:
+                api.teleportPlayerToArenaSpawnPointAsync(randomPlayer(), randomArena(), 1 + random.nextInt(4));
+                return true;
+            case TEAM_TELEPORT: {
+                List<PlayerMock> team = new ArrayList<>(4);
+                for (int i = 0; i < 4; i++) {
+                    team.add(randomPlayer());
+                }
+                api.teleportPlayersToArenaSpawnPoints(team, randomArena(), SpawnStrategy.ROUND_ROBIN);
+                return true;
+            }
+            case API_READ:
+                if (random.nextBoolean()) {
+                    api.getArenaSnapshot(randomArena());
+                } else {
+                    api.getArenaAt(BenchmarkServer.arenaLocation(world, random.nextInt(options.getArenas()), random.nextInt(BenchmarkServer.ARENA_SPACING)));
+                }
+                return true;
+            case TAB_COMPLETE:
+                arenaCommand.complete(new String[]{"tp", "arena-" + random.nextInt(100)});
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Run a /dhoomarenas subcommand as the simulated admin
+     * @param arguments Space separated arguments
+     * @return True
+     */
+    private boolean dispatch(String arguments) {
+        command.execute(admin, "dhoomarenas", arguments.split(" "));
+        return true;
+    }
+
+    private PlayerMock randomPlayer() {
+        return players.get(random.nextInt(players.size()));
+    }
+
+    private String randomArena() {
+        return BenchmarkServer.arenaName(random.nextInt(options.getArenas()));
+    }
+
+    /**
+     * Collect the results of the measured ticks
+     * @return Report
+     */
+    private SimulationReport buildReport() {
+        return new SimulationReport(options, measuredTicks, tickTimer, latencies, errors, allocatedBytes, plugin.getMetrics());
+    }
+}
@@ -0,0 +1,70 @@
+package me.notjoshx.dhoomarenas.loadsim;
+
+/**
+ * Kinds of work the simulation drives through the plugin, each with its own configurable rate
+ */
+public enum Operation {
+    /**
+     * {@code /dhoomarenas create}
+     */
+    CREATE("create-rate", 0.5D),
+
+    /**
+     * One {@code /dhoomarenas setup} subcommand on a simulated arena
+     */
+    SETUP("setup-rate", 2.0D),
+
+    /**
+     * {@code /dhoomarenas delete} of a simulated arena
+     */
+    DELETE("delete-rate", 0.25D),
+
+    /**
+     * {@link me.notjoshx.dhoomarenas.api.DhoomArenasAPI#teleportPlayerToArenaSpawnPoint}
+     */
+    TELEPORT("teleport-rate", 10.0D),
+
+    /**
+     * {@link me.notjoshx.dhoomarenas.api.DhoomArenasAPI#teleportPlayerToArenaSpawnPointAsync}
+     */
+    TELEPORT_ASYNC("teleport-async-rate", 10.0D),
+
+    /**
+     * {@link me.notjoshx.dhoomarenas.api.DhoomArenasAPI#teleportPlayersToArenaSpawnPoints} with a team of four
+     */
+    TEAM_TELEPORT("team-teleport-rate", 1.0D),
+
+    /**
+     * Snapshot and point lookups through the API
+     */
+    API_READ("api-read-rate", 100.0D),
+
+    /**
+     * Tab completion of arena names
+     */
+    TAB_COMPLETE("tab-complete-rate", 20.0D);
+
+    private final String optionName;
+    private final double defaultRate;
+
+    Operation(String optionName, double defaultRate) {
+        this.optionName = optionName;
+        this.defaultRate = defaultRate;
+    }
+
+    /**
+     * Get the command line option setting this operation's rate
+     * @return Option name
+     */
+    public String getOptionName() {
+        return optionName;
+    }
+
+    /**
+     * Get the rate used when none is given
+     * @return Operations per tick
+     */
+    public double getDefaultRate() {
+        return defaultRate;
+    }
+}
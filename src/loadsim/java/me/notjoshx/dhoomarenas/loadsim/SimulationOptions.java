@@ -0,0 +1,98 @@
+package me.notjoshx.dhoomarenas.loadsim;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings of a load simulation run, parsed from {@code --name=value} arguments
+ */
+public final class SimulationOptions {
+    private final Map<String, String> values;
+
+    private SimulationOptions(Map<String, String> values) {
+        this.values = values;
+    }
+
+    /**
+     * Parse command line arguments
+     * @param args Arguments in the form {@code --name=value}
+     * @return Options
+     * @throws IllegalArgumentException If an argument is malformed
+     */
+    public static SimulationOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            values.put(arg.substring(2, equals).toLowerCase(Locale.ROOT), arg.substring(equals + 1));
+        }
+        return new SimulationOptions(values);
+    }
+
+    /**
+     * Number of fully set up arenas created before the run
+     * @return Arena count
+     */
+    public int getArenas() {
+        return getInt("arenas", 2000);
+    }
+
+    /**
+     * Number of simulated players online during the run
+     * @return Player count
+     */
+    public int getPlayers() {
+        return getInt("players", 200);
+    }
+
+    /**
+     * Number of warmup ticks whose results are discarded
+     * @return Warmup ticks
+     */
+    public int getWarmupTicks() {
+        return getInt("warmup-ticks", 200);
+    }
+
+    /**
+     * Number of measured ticks
+     * @return Measured ticks
+     */
+    public int getTicks() {
+        return getInt("ticks", 1200);
+    }
+
+    /**
+     * Seed of the random generator, so runs are reproducible
+     * @return Seed
+     */
+    public long getSeed() {
+        return Long.parseLong(values.getOrDefault("seed", "42"));
+    }
+
+    /**
+     * Rate of an operation
+     * @param operation Operation
+     * @return Average number of operations started per tick
+     */
+    public double getRate(Operation operation) {
+        String value = values.get(operation.getOptionName());
+        return value != null ? Double.parseDouble(value) : operation.getDefaultRate();
+    }
+
+    /**
+     * File the JSON report is written to
+     * @return Report file
+     */
+    public File getReportFile() {
+        return new File(values.getOrDefault("report", "build/reports/loadsim/report.json"));
+    }
+
+    private int getInt(String name, int def) {
+        String value = values.get(name);
+        return value != null ? Integer.parseInt(value) : def;
+    }
+}
@@ -0,0 +1,132 @@
+package me.notjoshx.dhoomarenas.loadsim;
+
+import me.notjoshx.dhoomarenas.metrics.LatencyHistogram;
+import me.notjoshx.dhoomarenas.metrics.PluginMetrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Results of a load simulation run, printable as a table and writable as JSON for comparing runs
+ */
+public final class SimulationReport {
+    private static final double TICK_MILLIS = 50.0D;
+
+    private final SimulationOptions options;
+    private final int ticks;
+    private final LatencyHistogram tickTimer;
+    private final Map<Operation, LatencyHistogram> latencies;
+    private final Map<Operation, Integer> errors;
+    private final long allocatedBytes;
+    private final PluginMetrics metrics;
+
+    /**
+     * Create a new report
+     * @param options Run settings
+     * @param ticks Number of measured ticks
+     * @param tickTimer Time spent in plugin code per tick
+     * @param latencies Latency of each operation
+     * @param errors Failed operations by kind
+     * @param allocatedBytes Bytes allocated on the main thread during the measured ticks
+     * @param metrics The plugin's own metrics, covering the measured ticks
+     */
+    public SimulationReport(SimulationOptions options, int ticks, LatencyHistogram tickTimer, Map<Operation, LatencyHistogram> latencies,
+                            Map<Operation, Integer> errors, long allocatedBytes, PluginMetrics metrics) {
+        this.options = options;
+        this.ticks = ticks;
+        this.tickTimer = tickTimer;
+        this.latencies = latencies;
+        this.errors = errors;
+        this.allocatedBytes = allocatedBytes;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Format the report as a plain text table
+     * @return Report text
+     */
+    public String toText() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "===== Load simulation: %d arenas, %d players, %d ticks =====%n",
+                options.getArenas(), options.getPlayers(), ticks));
+        text.append(String.format(Locale.ROOT, "Plugin time per tick: mean %s, p99 %s, max %s (%.2f%% of a 50ms tick)%n",
+                millis(tickTimer.getMean()), millis(tickTimer.getPercentile(0.99D)), millis(tickTimer.getMax()),
+                tickTimer.getMean() / 1_000_000.0D / TICK_MILLIS * 100.0D));
+        text.append(String.format(Locale.ROOT, "Allocation: %.1f KiB per tick, %.2f MiB/s at 20 TPS%n",
+                getBytesPerTick() / 1024.0D, getBytesPerTick() * 20.0D / (1024.0D * 1024.0D)));
+
+        text.append(String.format(Locale.ROOT, "%n%-16s %10s %8s %12s %12s %12s%n", "operation", "count", "errors", "mean", "p99", "max"));
+        for (Map.Entry<Operation, LatencyHistogram> entry : latencies.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            text.append(String.format(Locale.ROOT, "%-16s %10d %8d %12s %12s %12s%n", histogram.getName(), histogram.getCount(),
+                    errors.get(entry.getKey()), millis(histogram.getMean()), millis(histogram.getPercentile(0.99D)), millis(histogram.getMax())));
+        }
+
+        text.append(String.format(Locale.ROOT, "%n%-22s %10s %12s %12s%n", "plugin timer", "count", "mean", "p99"));
+        Map<String, Double> means = metrics.getMeanMillis();
+        Map<String, Double> p99s = metrics.getP99Millis();
+        for (Map.Entry<String, Long> count : metrics.getCounts().entrySet()) {
+            if (count.getValue() == 0L) {
+                continue;
+            }
+            text.append(String.format(Locale.ROOT, "%-22s %10d %10.3fms %10.3fms%n", count.getKey(), count.getValue(),
+                    means.get(count.getKey()), p99s.get(count.getKey())));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Write the report as JSON
+     * @param file Target file
+     * @throws IOException If the file could not be written
+     */
+    public void writeJson(File file) throws IOException {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append(String.format(Locale.ROOT, "  \"arenas\": %d,%n  \"players\": %d,%n  \"ticks\": %d,%n  \"seed\": %d,%n",
+                options.getArenas(), options.getPlayers(), ticks, options.getSeed()));
+        json.append("  \"tick\": ").append(histogramJson(tickTimer)).append(",\n");
+        json.append(String.format(Locale.ROOT, "  \"allocatedBytesPerTick\": %.1f,%n", getBytesPerTick()));
+
+        json.append("  \"operations\": {");
+        String separator = "\n";
+        for (Map.Entry<Operation, LatencyHistogram> entry : latencies.entrySet()) {
+            String histogram = histogramJson(entry.getValue());
+            json.append(separator).append(String.format(Locale.ROOT, "    \"%s\": {\"rate\": %s, \"errors\": %d, \"latency\": %s}",
+                    entry.getValue().getName(), options.getRate(entry.getKey()), errors.get(entry.getKey()), histogram));
+            separator = ",\n";
+        }
+        json.append("\n  },\n");
+
+        json.append("  \"pluginP99Millis\": {");
+        separator = "\n";
+        for (Map.Entry<String, Double> entry : metrics.getP99Millis().entrySet()) {
+            json.append(separator).append(String.format(Locale.ROOT, "    \"%s\": %.4f", entry.getKey(), entry.getValue()));
+            separator = ",\n";
+        }
+        json.append("\n  }\n}\n");
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        Files.write(file.toPath(), json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private double getBytesPerTick() {
+        return ticks > 0 ? (double) allocatedBytes / ticks : 0.0D;
+    }
+
+    private static String histogramJson(LatencyHistogram histogram) {
+        return String.format(Locale.ROOT, "{\"count\": %d, \"meanMillis\": %.4f, \"p50Millis\": %.4f, \"p99Millis\": %.4f, \"maxMillis\": %.4f}",
+                histogram.getCount(), histogram.getMean() / 1_000_000.0D, histogram.getPercentile(0.5D) / 1_000_000.0D,
+                histogram.getPercentile(0.99D) / 1_000_000.0D, histogram.getMax() / 1_000_000.0D);
+    }
+
+    private static String millis(double nanos) {
+        return String.format(Locale.ROOT, "%.3fms", nanos / 1_000_000.0D);
+    }
+}
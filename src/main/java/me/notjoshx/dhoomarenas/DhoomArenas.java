@@ -2,7 +2,17 @@ package me.notjoshx.dhoomarenas;
 
 import me.notjoshx.dhoomarenas.api.DhoomArenasAPI;
 import me.notjoshx.dhoomarenas.commands.ArenaCommand;
+import me.notjoshx.dhoomarenas.listeners.ArenaBoundaryListener;
+import me.notjoshx.dhoomarenas.listeners.ArenaChangeListener;
+import me.notjoshx.dhoomarenas.listeners.ArenaMembershipListener;
+import me.notjoshx.dhoomarenas.listeners.ArenaReadinessListener;
+import me.notjoshx.dhoomarenas.listeners.ArenaTabCompleteListener;
+import me.notjoshx.dhoomarenas.listeners.WorldListener;
 import me.notjoshx.dhoomarenas.managers.ArenaManager;
+import me.notjoshx.dhoomarenas.metrics.PluginMetrics;
+import me.notjoshx.dhoomarenas.models.WorldRegistry;
+import me.notjoshx.dhoomarenas.scheduler.WorkScheduler;
+import org.bukkit.World;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
@@ -11,6 +21,8 @@ public final class DhoomArenas extends JavaPlugin {
 
     private static DhoomArenas instance;
     private ArenaManager arenaManager;
+    private PluginMetrics metrics;
+    private WorkScheduler scheduler;
 
     @Override
     public void onEnable() {
@@ -22,17 +34,44 @@ public final class DhoomArenas extends JavaPlugin {
             getDataFolder().mkdir();
         }
 
+        saveDefaultConfig();
+
         // Create arenas folder
         File arenasFolder = new File(getDataFolder(), "arenas");
         if (!arenasFolder.exists()) {
             arenasFolder.mkdir();
         }
 
+        // Initialize metrics before anything records into them
+        metrics = new PluginMetrics(this);
+        metrics.start();
+
+        // Shared tick budget for heavy main-thread work such as teleports and resets
+        scheduler = new WorkScheduler(this, getConfig().getDouble("scheduler.budget-ms", 10.0D),
+                getConfig().getDouble("scheduler.min-budget-ms", 1.0D), getConfig().getDouble("scheduler.target-mspt", 45.0D));
+        scheduler.start();
+
+        // Track loaded worlds so arena locations can be resolved without holding on to worlds
+        for (World world : getServer().getWorlds()) {
+            WorldRegistry.register(world);
+        }
+        getServer().getPluginManager().registerEvents(new WorldListener(), this);
+
         // Initialize managers
         arenaManager = new ArenaManager(this);
 
         // Register commands
-        getCommand("dhoomarenas").setExecutor(new ArenaCommand(this));
+        ArenaCommand arenaCommand = new ArenaCommand(this);
+        getCommand("dhoomarenas").setExecutor(arenaCommand);
+
+        // Register listeners
+        getServer().getPluginManager().registerEvents(new ArenaChangeListener(arenaManager), this);
+        getServer().getPluginManager().registerEvents(new ArenaMembershipListener(arenaManager), this);
+        getServer().getPluginManager().registerEvents(new ArenaReadinessListener(this), this);
+        if (getConfig().getBoolean("boundary.enabled", true)) {
+            getServer().getPluginManager().registerEvents(new ArenaBoundaryListener(arenaManager), this);
+        }
+        getServer().getPluginManager().registerEvents(new ArenaTabCompleteListener(arenaCommand, getCommand("dhoomarenas")), this);
 
         // Initialize API (this will be lazy-loaded when requested)
         DhoomArenasAPI.getInstance();
@@ -43,6 +82,17 @@ public final class DhoomArenas extends JavaPlugin {
     @Override
     public void onDisable() {
         // Plugin shutdown logic
+        if (arenaManager != null) {
+            arenaManager.shutdown();
+        }
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        if (metrics != null) {
+            metrics.shutdown();
+        }
+        WorldRegistry.clear();
+
         getLogger().info("DhoomArenas has been disabled!");
     }
 
@@ -61,4 +111,20 @@ public final class DhoomArenas extends JavaPlugin {
     public ArenaManager getArenaManager() {
         return arenaManager;
     }
+
+    /**
+     * Get the performance metrics
+     * @return Metrics registry
+     */
+    public PluginMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the work scheduler
+     * @return Work scheduler
+     */
+    public WorkScheduler getScheduler() {
+        return scheduler;
+    }
 }
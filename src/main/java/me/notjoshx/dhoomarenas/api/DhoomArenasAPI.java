@@ -1,16 +1,33 @@
 package me.notjoshx.dhoomarenas.api;
 
 import me.notjoshx.dhoomarenas.DhoomArenas;
+import me.notjoshx.dhoomarenas.membership.JoinResult;
 import me.notjoshx.dhoomarenas.models.Arena;
+import me.notjoshx.dhoomarenas.models.ArenaSnapshot;
+import me.notjoshx.dhoomarenas.scheduler.ScheduledWork;
+import me.notjoshx.dhoomarenas.scheduler.WorkPriority;
+import me.notjoshx.dhoomarenas.scheduler.WorkUnit;
+import me.notjoshx.dhoomarenas.teleport.SpawnStrategy;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
+import org.bukkit.util.BoundingBox;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.DoubleConsumer;
+import java.util.function.Predicate;
 
 /**
- * API for DhoomArenas
+ * API for DhoomArenas.
+ * All read methods are safe to call from any thread; every returned location is a new copy.
+ * Locations in worlds that are not loaded are reported as not set.
  */
 public class DhoomArenasAPI {
     private static DhoomArenasAPI instance;
@@ -35,12 +52,59 @@ public class DhoomArenasAPI {
         return instance;
     }
 
+    /**
+     * Get a future that completes on the main thread once all arenas have been loaded
+     * @return Load future
+     */
+    public CompletableFuture<Void> whenArenasLoaded() {
+        return plugin.getArenaManager().getLoadFuture();
+    }
+
+    /**
+     * Check if all arenas have been loaded
+     * @return True if loading has finished
+     */
+    public boolean areArenasLoaded() {
+        return plugin.getArenaManager().isLoaded();
+    }
+
     /**
      * Get all arena names
      * @return Set of arena names
      */
     public Set<String> getArenaNames() {
-        return Collections.unmodifiableSet(plugin.getArenaManager().getArenas().keySet());
+        return plugin.getArenaManager().getArenaNames();
+    }
+
+    /**
+     * Get an immutable snapshot of an arena, safe to keep and read from any thread
+     * @param arenaName Arena name
+     * @return Arena snapshot, or null if not found
+     */
+    public ArenaSnapshot getArenaSnapshot(String arenaName) {
+        Arena arena = plugin.getArenaManager().getArena(arenaName);
+        if (arena == null) {
+            return null;
+        }
+        return arena.getSnapshot();
+    }
+
+    /**
+     * Check if an arena can be played: position 1 and 2, center, max players and spawn points 1 to max players are set,
+     * and every world they are in is loaded. The result is cached until the arena changes. Safe to call from any thread.
+     * @param arenaName Arena name
+     * @return True if the arena exists and is ready
+     */
+    public boolean isArenaReady(String arenaName) {
+        return plugin.getArenaManager().isArenaReady(arenaName);
+    }
+
+    /**
+     * Get the names of every arena that can be played, including template instances in use
+     * @return Unmodifiable live view, safe to read from any thread
+     */
+    public Set<String> getReadyArenas() {
+        return plugin.getArenaManager().getReadyArenaNames();
     }
 
     /**
@@ -66,30 +130,31 @@ public class DhoomArenasAPI {
     }
 
     /**
-     * Get the spawn points of an arena
+     * Get the spawn points of an arena. The map is cached in the arena's snapshot, so this does not allocate.
      * @param arenaName Arena name
-     * @return Map of spawn point numbers to locations, or empty map if not found
+     * @return Read-only map of spawn point numbers to locations shared with the plugin, or empty map if not found.
+     *         Do not modify the locations; use {@link #getArenaSpawnPoint(String, int)} for a private copy.
      */
     public Map<Integer, Location> getArenaSpawnPoints(String arenaName) {
         Arena arena = plugin.getArenaManager().getArena(arenaName);
         if (arena == null) {
             return Collections.emptyMap();
         }
-        return Collections.unmodifiableMap(arena.getSpawnPoints());
+        return arena.getSpawnPoints();
     }
 
     /**
      * Get a specific spawn point of an arena
      * @param arenaName Arena name
      * @param spawnPoint Spawn point number
-     * @return Spawn point location, or null if not found or not set
+     * @return New spawn point location the caller may modify, or null if not found or not set
      */
     public Location getArenaSpawnPoint(String arenaName, int spawnPoint) {
         Arena arena = plugin.getArenaManager().getArena(arenaName);
         if (arena == null) {
             return null;
         }
-        return arena.getSpawnPoints().get(spawnPoint);
+        return arena.getSnapshot().getSpawnPoint(spawnPoint);
     }
 
     /**
@@ -118,6 +183,242 @@ public class DhoomArenasAPI {
         return arena.getWaitTimeSeconds();
     }
 
+    /**
+     * Get the arena containing a location. When arenas overlap, the smallest one is returned.
+     * @param location Location
+     * @return Arena name, or null if the location is not inside any arena
+     */
+    public String getArenaAt(Location location) {
+        Arena arena = plugin.getArenaManager().getArenaAt(location);
+        return arena != null ? arena.getName() : null;
+    }
+
+    /**
+     * Get all arenas whose bounds intersect a box
+     * @param world World of the box
+     * @param box Box in block coordinates
+     * @return Names of intersecting arenas
+     */
+    public List<String> getArenasIntersecting(World world, BoundingBox box) {
+        List<Arena> arenas = plugin.getArenaManager().getArenasIntersecting(world, box);
+        List<String> names = new ArrayList<>(arenas.size());
+        for (Arena arena : arenas) {
+            names.add(arena.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Load every chunk covering an arena's region and keep it loaded until the arena is released.
+     * Every call must be matched by a call to {@link #releaseArena(String)}. Must be called from the main thread.
+     * @param arenaName Arena name
+     * @return Future completing once all chunks are loaded, or null if the arena does not exist
+     */
+    public CompletableFuture<Void> warmArena(String arenaName) {
+        return plugin.getArenaManager().warmArena(arenaName);
+    }
+
+    /**
+     * Release an arena warmed with {@link #warmArena(String)}. Must be called from the main thread.
+     * @param arenaName Arena name
+     */
+    public void releaseArena(String arenaName) {
+        plugin.getArenaManager().releaseArena(arenaName);
+    }
+
+    /**
+     * Add a player to an arena. Fails if the arena is full or the player is already in another arena.
+     * While in an arena, the player is kept inside its region (pos1/pos2) and removed again when they quit.
+     * Safe to call from any thread.
+     * @param player Player
+     * @param arenaName Arena name
+     * @return Outcome
+     */
+    public JoinResult joinArena(Player player, String arenaName) {
+        return plugin.getArenaManager().joinArena(player.getUniqueId(), arenaName);
+    }
+
+    /**
+     * Remove a player from their arena. Safe to call from any thread.
+     * @param player Player
+     * @return Name of the arena the player left, or null if they were not in one
+     */
+    public String leaveArena(Player player) {
+        Arena arena = plugin.getArenaManager().leaveArena(player.getUniqueId());
+        return arena != null ? arena.getName() : null;
+    }
+
+    /**
+     * Get the arena a player is in
+     * @param playerId Player UUID
+     * @return Arena name, or null if the player is not in one
+     */
+    public String getPlayerArena(UUID playerId) {
+        Arena arena = plugin.getArenaManager().getPlayerArena(playerId);
+        return arena != null ? arena.getName() : null;
+    }
+
+    /**
+     * Get the players in an arena
+     * @param arenaName Arena name
+     * @return Live, unmodifiable view of player UUIDs, empty if the arena does not exist
+     */
+    public Set<UUID> getArenaPlayers(String arenaName) {
+        Arena arena = plugin.getArenaManager().getArena(arenaName);
+        return arena != null ? plugin.getArenaManager().getMembership().getPlayers(arena) : Collections.emptySet();
+    }
+
+    /**
+     * Get the number of players in an arena
+     * @param arenaName Arena name
+     * @return Player count, 0 if the arena does not exist
+     */
+    public int getArenaPlayerCount(String arenaName) {
+        Arena arena = plugin.getArenaManager().getArena(arenaName);
+        return arena != null ? plugin.getArenaManager().getMembership().getPlayerCount(arena) : 0;
+    }
+
+    /**
+     * Get the seconds until an arena's countdown finishes.
+     * Countdowns start once enough players have joined and last the arena's wait time.
+     * @param arenaName Arena name
+     * @return Seconds left, or -1 if the arena is not counting down
+     */
+    public int getArenaCountdown(String arenaName) {
+        Arena arena = plugin.getArenaManager().getArena(arenaName);
+        return arena != null ? plugin.getArenaManager().getCountdownManager().getSecondsLeft(arena) : -1;
+    }
+
+    /**
+     * Check if an arena's countdown has finished, until all of its players have left
+     * @param arenaName Arena name
+     * @return True if started
+     */
+    public boolean isArenaStarted(String arenaName) {
+        Arena arena = plugin.getArenaManager().getArena(arenaName);
+        return arena != null && plugin.getArenaManager().getCountdownManager().isStarted(arena);
+    }
+
+    /**
+     * Find the ready arena that best fits a party: the one with the most free slots, then the fewest players.
+     * Only arenas that are {@link #isArenaReady(String) ready} and have not started are considered.
+     * Safe to call from any thread; join right away, as another party may take the slots in the meantime.
+     * @param partySize Players that need a slot
+     * @param filter Extra condition on the arena, e.g. a name prefix, or null; keep it cheap as it runs under a lock
+     * @return Arena name, or null if no ready arena has room for the party
+     */
+    public String findAvailableArena(int partySize, Predicate<ArenaSnapshot> filter) {
+        Arena arena = plugin.getArenaManager().findAvailableArena(partySize, filter);
+        return arena != null ? arena.getName() : null;
+    }
+
+    /**
+     * Find the ready arena with the most free slots, then the fewest players, that fits a party
+     * @param partySize Players that need a slot
+     * @return Arena name, or null if no ready arena has room for the party
+     */
+    public String findAvailableArena(int partySize) {
+        return findAvailableArena(partySize, null);
+    }
+
+    /**
+     * Take a pre-built, reset instance of a template out of its pool.
+     * The instance is an arena named {@code template#index} that can be used by name with every other method.
+     * Must be called from the main thread.
+     * @param templateName Template name, as configured under {@code templates} in config.yml
+     * @return Instance name, or null if the template does not exist or no instance is ready
+     */
+    public String acquireArenaInstance(String templateName) {
+        Arena instance = plugin.getArenaManager().acquireInstance(templateName);
+        return instance != null ? instance.getName() : null;
+    }
+
+    /**
+     * Take an instance of a template, building a new one if none is ready. Must be called from the main thread.
+     * @param templateName Template name
+     * @return Future completing on the main thread with the instance name
+     */
+    public CompletableFuture<String> acquireArenaInstanceAsync(String templateName) {
+        return plugin.getArenaManager().acquireInstanceAsync(templateName).thenApply(Arena::getName);
+    }
+
+    /**
+     * Give a template instance back after a match. Its players are removed, its changed blocks are reset,
+     * and it returns to the pool. Must be called from the main thread.
+     * @param instanceName Instance name
+     * @return Future completing once the instance is ready again, or null if there is no such instance
+     */
+    public CompletableFuture<Void> releaseArenaInstance(String instanceName) {
+        return plugin.getArenaManager().releaseInstance(instanceName);
+    }
+
+    /**
+     * Get the number of instances of a template ready to hand out. Must be called from the main thread.
+     * @param templateName Template name
+     * @return Ready instances, 0 if the template does not exist
+     */
+    public int getReadyInstanceCount(String templateName) {
+        return plugin.getArenaManager().getTemplateManager().getReadyCount(templateName);
+    }
+
+    /**
+     * Capture the current blocks of an arena's region so it can be reset later.
+     * Must be called from the main thread; the future completes on the main thread.
+     * @param arenaName Arena name
+     * @return Future completing once the snapshot has been stored, or null if the arena does not exist
+     */
+    public CompletableFuture<Void> captureArenaRegion(String arenaName) {
+        return plugin.getArenaManager().captureArena(arenaName);
+    }
+
+    /**
+     * Restore an arena's region from its last capture, spending at most {@code reset.budget-ms} per tick.
+     * Must be called from the main thread; the future completes on the main thread.
+     * @param arenaName Arena name
+     * @param progress Progress callback, called once per tick with a value from 0 to 1, or null
+     * @return Future completing once the region has been restored, or null if the arena does not exist
+     */
+    public CompletableFuture<Void> resetArenaRegion(String arenaName, DoubleConsumer progress) {
+        return plugin.getArenaManager().resetArena(arenaName, progress);
+    }
+
+    /**
+     * Start recording block changes inside an arena, e.g. when a match starts. Must be called from the main thread.
+     * @param arenaName Arena name
+     * @return Success status
+     */
+    public boolean startTrackingChanges(String arenaName) {
+        return plugin.getArenaManager().startTrackingChanges(arenaName);
+    }
+
+    /**
+     * Stop recording block changes inside an arena. Must be called from the main thread.
+     * @param arenaName Arena name
+     */
+    public void stopTrackingChanges(String arenaName) {
+        plugin.getArenaManager().stopTrackingChanges(arenaName);
+    }
+
+    /**
+     * Get the number of blocks changed inside a tracked arena. Must be called from the main thread.
+     * @param arenaName Arena name
+     * @return Dirty block count
+     */
+    public int getDirtyBlockCount(String arenaName) {
+        return plugin.getArenaManager().getDirtyBlockCount(arenaName);
+    }
+
+    /**
+     * Undo only the blocks changed inside a tracked arena, spending at most {@code reset.budget-ms} per tick.
+     * Must be called from the main thread; the future completes on the main thread.
+     * @param arenaName Arena name
+     * @param progress Progress callback, called once per tick with a value from 0 to 1, or null
+     * @return Future completing once the changes have been undone, or null if the arena does not exist
+     */
+    public CompletableFuture<Void> resetArenaChanges(String arenaName, DoubleConsumer progress) {
+        return plugin.getArenaManager().resetArenaChanges(arenaName, progress);
+    }
+
     /**
      * Teleport a player to an arena's center
      * @param player Player to teleport
@@ -138,4 +439,51 @@ public class DhoomArenasAPI {
     public boolean teleportPlayerToArenaSpawnPoint(Player player, String arenaName, int spawnPoint) {
         return plugin.getArenaManager().teleportToArena(player, arenaName, spawnPoint);
     }
+
+    /**
+     * Teleport a player to an arena's center without blocking the tick.
+     * Must be called from the main thread; the future completes on the main thread.
+     * @param player Player to teleport
+     * @param arenaName Arena name
+     * @return Future completing with true if teleported successfully
+     */
+    public CompletableFuture<Boolean> teleportPlayerToArenaCenterAsync(Player player, String arenaName) {
+        return plugin.getArenaManager().teleportToArenaAsync(player, arenaName, -1);
+    }
+
+    /**
+     * Teleport a player to an arena's spawn point without blocking the tick.
+     * Must be called from the main thread; the future completes on the main thread.
+     * @param player Player to teleport
+     * @param arenaName Arena name
+     * @param spawnPoint Spawn point number
+     * @return Future completing with true if teleported successfully
+     */
+    public CompletableFuture<Boolean> teleportPlayerToArenaSpawnPointAsync(Player player, String arenaName, int spawnPoint) {
+        return plugin.getArenaManager().teleportToArenaAsync(player, arenaName, spawnPoint);
+    }
+
+    /**
+     * Teleport a group of players to an arena's spawn points in one batch, giving each player its own spawn point
+     * while there are enough. Must be called from the main thread; the futures complete on the main thread.
+     * @param players Players to teleport
+     * @param arenaName Arena name
+     * @param strategy How spawn points are assigned
+     * @return Future for each player, completing with true if the player was teleported
+     */
+    public Map<Player, CompletableFuture<Boolean>> teleportPlayersToArenaSpawnPoints(Collection<? extends Player> players, String arenaName, SpawnStrategy strategy) {
+        return plugin.getArenaManager().teleportTeamToArena(players, arenaName, strategy);
+    }
+
+    /**
+     * Queue heavy main-thread work to run in slices under the same per-tick budget as arena resets and teleports.
+     * May be called from any thread; slices run on the main thread starting next tick.
+     * @param name Name used in log messages
+     * @param priority Priority
+     * @param unit Work to run, returning true from {@link WorkUnit#runSlice(long)} once finished
+     * @return Handle whose future completes on the main thread once the work is done
+     */
+    public ScheduledWork submitWork(String name, WorkPriority priority, WorkUnit unit) {
+        return plugin.getScheduler().submit(name, priority, unit);
+    }
 }
@@ -2,8 +2,13 @@ package me.notjoshx.dhoomarenas.commands;
 
 import me.notjoshx.dhoomarenas.DhoomArenas;
 import me.notjoshx.dhoomarenas.managers.ArenaManager;
+import me.notjoshx.dhoomarenas.metrics.LatencyHistogram;
+import me.notjoshx.dhoomarenas.metrics.PluginMetrics;
 import me.notjoshx.dhoomarenas.models.Arena;
+import me.notjoshx.dhoomarenas.models.ArenaValidation;
+import me.notjoshx.dhoomarenas.scheduler.WorkScheduler;
 import org.bukkit.ChatColor;
+import org.bukkit.Location;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -11,14 +16,29 @@ import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
 import java.util.stream.IntStream;
 
 public class ArenaCommand implements CommandExecutor, TabCompleter {
+    private static final String[] SUB_COMMANDS = {"create", "delete", "setup", "tp", "list", "info", "stats", "migrate", "validate"};
+    private static final String[] SETUP_OPTIONS = {"pos", "maxPlayers", "spawnpoint", "center", "waitTime"};
+    private static final String[] POSITIONS = {"1", "2"};
+    private static final String[] STORAGE_TYPES = {"yaml", "sqlite"};
+    private static final String[] NUMBERS = IntStream.rangeClosed(1, 10).mapToObj(String::valueOf).toArray(String[]::new);
+    private static final String[] WAIT_TIMES = IntStream.rangeClosed(1, 10).mapToObj(i -> i + "s").toArray(String[]::new);
+
     private final DhoomArenas plugin;
     private final ArenaManager arenaManager;
+    private final Map<String, LatencyHistogram> commandTimers;
+    private final LatencyHistogram helpTimer;
+    private final LatencyHistogram tabCompleteTimer;
+    private final int maxCompletions;
 
     /**
      * Create a new arena command
@@ -28,6 +48,16 @@ public class ArenaCommand implements CommandExecutor, TabCompleter {
         this.plugin = plugin;
         this.arenaManager = plugin.getArenaManager();
         plugin.getCommand("dhoomarenas").setTabCompleter(this);
+
+        // Look the timers up once so recording a command never allocates
+        PluginMetrics metrics = plugin.getMetrics();
+        this.commandTimers = new HashMap<>();
+        for (String subCommand : SUB_COMMANDS) {
+            commandTimers.put(subCommand, metrics.timer("command_" + subCommand, "Time spent handling /dhoomarenas " + subCommand));
+        }
+        this.helpTimer = metrics.timer("command_help", "Time spent handling /dhoomarenas help");
+        this.tabCompleteTimer = metrics.timer("tab_complete", "Time spent computing /dhoomarenas tab completions");
+        this.maxCompletions = Math.max(1, plugin.getConfig().getInt("commands.max-completions", 50));
     }
 
     @Override
@@ -50,7 +80,23 @@ public class ArenaCommand implements CommandExecutor, TabCompleter {
         }
 
         String subCommand = args[0].toLowerCase();
+        long start = System.nanoTime();
+        try {
+            dispatch(player, subCommand, args);
+        } finally {
+            commandTimers.getOrDefault(subCommand, helpTimer).recordSince(start);
+        }
+
+        return true;
+    }
 
+    /**
+     * Run a subcommand
+     * @param player Player who executed the command
+     * @param subCommand Lowercase subcommand
+     * @param args Command arguments
+     */
+    private void dispatch(Player player, String subCommand, String[] args) {
         switch (subCommand) {
             case "create":
                 handleCreateCommand(player, args);
@@ -70,12 +116,19 @@ public class ArenaCommand implements CommandExecutor, TabCompleter {
             case "info":
                 handleInfoCommand(player, args);
                 break;
+            case "stats":
+                handleStatsCommand(player);
+                break;
+            case "migrate":
+                handleMigrateCommand(player, args);
+                break;
+            case "validate":
+                handleValidateCommand(player);
+                break;
             default:
                 sendHelpMessage(player);
                 break;
         }
-
-        return true;
     }
 
     /**
@@ -94,6 +147,9 @@ public class ArenaCommand implements CommandExecutor, TabCompleter {
         player.sendMessage(ChatColor.YELLOW + "/dhoomarenas tp <arenaName> [spawnPoint] " + ChatColor.WHITE + "- Teleport to arena");
         player.sendMessage(ChatColor.YELLOW + "/dhoomarenas list " + ChatColor.WHITE + "- List all arenas");
         player.sendMessage(ChatColor.YELLOW + "/dhoomarenas info <arenaName> " + ChatColor.WHITE + "- Show arena info");
+        player.sendMessage(ChatColor.YELLOW + "/dhoomarenas stats " + ChatColor.WHITE + "- Show performance statistics");
+        player.sendMessage(ChatColor.YELLOW + "/dhoomarenas migrate <yaml|sqlite> " + ChatColor.WHITE + "- Copy all arenas to another storage");
+        player.sendMessage(ChatColor.YELLOW + "/dhoomarenas validate " + ChatColor.WHITE + "- List arenas that are not ready to play");
     }
 
     /**
@@ -129,13 +185,21 @@ public class ArenaCommand implements CommandExecutor, TabCompleter {
         }
 
         String arenaName = args[1];
-        boolean deleted = arenaManager.deleteArena(arenaName);
-
-        if (deleted) {
-            player.sendMessage(ChatColor.GREEN + "Arena " + arenaName + " deleted successfully!");
-        } else {
+        if (arenaManager.getArena(arenaName) == null) {
             player.sendMessage(ChatColor.RED + "Arena " + arenaName + " does not exist!");
+            return;
         }
+
+        arenaManager.deleteArena(arenaName).thenAccept(deleted -> {
+            if (!player.isOnline()) {
+                return;
+            }
+            if (deleted) {
+                player.sendMessage(ChatColor.GREEN + "Arena " + arenaName + " deleted successfully!");
+            } else {
+                player.sendMessage(ChatColor.RED + "Arena " + arenaName + " was unloaded but could not be deleted from storage, see the console for details.");
+            }
+        });
     }
 
     /**
@@ -265,8 +329,9 @@ public class ArenaCommand implements CommandExecutor, TabCompleter {
         }
 
         String arenaName = args[1];
+        Arena arena = arenaManager.getArena(arenaName);
 
-        if (!arenaManager.arenaExists(arenaName)) {
+        if (arena == null) {
             player.sendMessage(ChatColor.RED + "Arena " + arenaName + " does not exist!");
             return;
         }
@@ -281,21 +346,33 @@ public class ArenaCommand implements CommandExecutor, TabCompleter {
             }
         }
 
-        boolean teleported = arenaManager.teleportToArena(player, arenaName, spawnPoint);
-
-        if (teleported) {
-            if (spawnPoint == -1) {
-                player.sendMessage(ChatColor.GREEN + "Teleported to center of arena " + arenaName + "!");
-            } else {
-                player.sendMessage(ChatColor.GREEN + "Teleported to spawn point " + spawnPoint + " of arena " + arenaName + "!");
-            }
-        } else {
+        // Checked up front, so a false result below means the teleport itself was cancelled
+        Location destination = spawnPoint == -1 ? arena.getCenter() : arena.getSnapshot().getSpawnPoint(spawnPoint);
+        if (destination == null || destination.getWorld() == null) {
             if (spawnPoint == -1) {
                 player.sendMessage(ChatColor.RED + "Center of arena " + arenaName + " is not set!");
             } else {
                 player.sendMessage(ChatColor.RED + "Spawn point " + spawnPoint + " of arena " + arenaName + " is not set!");
             }
+            return;
         }
+
+        int target = spawnPoint;
+        arenaManager.teleportToArenaAsync(player, arenaName, spawnPoint).whenComplete((teleported, throwable) -> {
+            if (!player.isOnline()) {
+                return;
+            }
+            if (throwable != null) {
+                player.sendMessage(ChatColor.RED + "Could not teleport to arena " + arenaName + ", see the console for details.");
+                plugin.getLogger().log(Level.WARNING, "Could not teleport " + player.getName() + " to arena " + arenaName, throwable);
+            } else if (!teleported) {
+                player.sendMessage(ChatColor.RED + "Teleport to arena " + arenaName + " was cancelled!");
+            } else if (target == -1) {
+                player.sendMessage(ChatColor.GREEN + "Teleported to center of arena " + arenaName + "!");
+            } else {
+                player.sendMessage(ChatColor.GREEN + "Teleported to spawn point " + target + " of arena " + arenaName + "!");
+            }
+        });
     }
 
     /**
@@ -336,27 +413,141 @@ public class ArenaCommand implements CommandExecutor, TabCompleter {
 
         player.sendMessage(ChatColor.GREEN + "===== Arena: " + arenaName + " =====");
         player.sendMessage(ChatColor.YELLOW + "Max Players: " + ChatColor.WHITE + arena.getMaxPlayers());
+        player.sendMessage(ChatColor.YELLOW + "Players: " + ChatColor.WHITE + arenaManager.getMembership().getPlayerCount(arena));
         player.sendMessage(ChatColor.YELLOW + "Wait Time: " + ChatColor.WHITE + arena.getWaitTimeSeconds() + " seconds");
+        ArenaValidation validation = arena.getValidation();
+        player.sendMessage(ChatColor.YELLOW + "Ready: " + (validation.isReady() ? ChatColor.GREEN + "Yes"
+                : ChatColor.RED + "No" + ChatColor.GRAY + " (" + String.join(", ", validation.getProblems()) + ")"));
         player.sendMessage(ChatColor.YELLOW + "Position 1: " + ChatColor.WHITE + (arena.getPos1() != null ? formatLocation(arena.getPos1()) : "Not set"));
         player.sendMessage(ChatColor.YELLOW + "Position 2: " + ChatColor.WHITE + (arena.getPos2() != null ? formatLocation(arena.getPos2()) : "Not set"));
         player.sendMessage(ChatColor.YELLOW + "Center: " + ChatColor.WHITE + (arena.getCenter() != null ? formatLocation(arena.getCenter()) : "Not set"));
 
         player.sendMessage(ChatColor.YELLOW + "Spawn Points:");
-        if (arena.getSpawnPoints().isEmpty()) {
+        Map<Integer, Location> spawnPoints = arena.getSpawnPoints();
+        if (spawnPoints.isEmpty()) {
             player.sendMessage(ChatColor.RED + "  No spawn points set!");
         } else {
-            for (Integer pointNumber : arena.getSpawnPoints().keySet()) {
-                player.sendMessage(ChatColor.YELLOW + "  " + pointNumber + ": " + ChatColor.WHITE + formatLocation(arena.getSpawnPoints().get(pointNumber)));
+            for (Map.Entry<Integer, Location> spawnPoint : spawnPoints.entrySet()) {
+                player.sendMessage(ChatColor.YELLOW + "  " + spawnPoint.getKey() + ": " + ChatColor.WHITE + formatLocation(spawnPoint.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Handle stats command
+     * @param player Player who executed the command
+     */
+    private void handleStatsCommand(Player player) {
+        PluginMetrics metrics = plugin.getMetrics();
+        player.sendMessage(ChatColor.GREEN + "===== DhoomArenas Stats =====");
+        player.sendMessage(ChatColor.YELLOW + "Server MSPT: " + ChatColor.WHITE + formatMillis(plugin.getServer().getAverageTickTime()));
+        WorkScheduler scheduler = plugin.getScheduler();
+        player.sendMessage(ChatColor.YELLOW + "Scheduler: " + ChatColor.WHITE + scheduler.getQueueDepth() + " queued"
+                + ChatColor.GRAY + " lag " + ChatColor.WHITE + scheduler.getLagTicks() + " ticks"
+                + ChatColor.GRAY + " budget " + ChatColor.WHITE + formatMillis(scheduler.getBudgetMillis()));
+
+        for (LatencyHistogram timer : metrics.getTimers()) {
+            long count = timer.getCount();
+            if (count == 0L) {
+                continue;
             }
+
+            player.sendMessage(ChatColor.YELLOW + timer.getName() + ": " + ChatColor.WHITE + count + "x"
+                    + ChatColor.GRAY + " avg " + ChatColor.WHITE + formatMillis(timer.getMean() / 1_000_000.0D)
+                    + ChatColor.GRAY + " p95 " + ChatColor.WHITE + formatMillis(timer.getPercentile(0.95D) / 1_000_000.0D)
+                    + ChatColor.GRAY + " max " + ChatColor.WHITE + formatMillis(timer.getMax() / 1_000_000.0D));
+        }
+
+        for (Map.Entry<String, Long> counter : metrics.getCounters().entrySet()) {
+            player.sendMessage(ChatColor.YELLOW + counter.getKey() + ": " + ChatColor.WHITE + counter.getValue());
         }
     }
 
+    /**
+     * Handle migrate command
+     * @param player Player who executed the command
+     * @param args Command arguments
+     */
+    private void handleMigrateCommand(Player player, String[] args) {
+        if (args.length < 2) {
+            player.sendMessage(ChatColor.RED + "Usage: /dhoomarenas migrate <yaml|sqlite>");
+            return;
+        }
+
+        String type = args[1].toLowerCase(Locale.ROOT);
+        CompletableFuture<Integer> migration;
+        try {
+            migration = arenaManager.migrateStorage(type);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            player.sendMessage(ChatColor.RED + e.getMessage() + "!");
+            return;
+        }
+
+        player.sendMessage(ChatColor.YELLOW + "Copying arenas from " + arenaManager.getStorageType() + " to " + type + " storage...");
+        migration.whenComplete((count, throwable) -> {
+            if (!player.isOnline()) {
+                return;
+            }
+            if (throwable != null) {
+                player.sendMessage(ChatColor.RED + "Migration failed, see the console for details.");
+                return;
+            }
+            player.sendMessage(ChatColor.GREEN + "Copied " + count + " arenas to " + type + " storage. "
+                    + "Set storage.type to " + type + " and restart to use it.");
+        });
+    }
+
+    /**
+     * Handle validate command
+     * @param player Player who executed the command
+     */
+    private void handleValidateCommand(Player player) {
+        if (!arenaManager.isLoaded()) {
+            player.sendMessage(ChatColor.RED + "Arenas are still loading!");
+            return;
+        }
+
+        player.sendMessage(ChatColor.GREEN + "===== Validating " + arenaManager.getArenas().size() + " arenas =====");
+        AtomicInteger notReady = new AtomicInteger();
+        arenaManager.validateArenas(validation -> {
+            if (validation.isReady()) {
+                return;
+            }
+            notReady.incrementAndGet();
+            if (player.isOnline()) {
+                player.sendMessage(ChatColor.YELLOW + validation.getArenaName() + ": " + ChatColor.WHITE
+                        + String.join(", ", validation.getProblems()));
+            }
+        }).whenComplete((checked, throwable) -> {
+            if (!player.isOnline()) {
+                return;
+            }
+            if (throwable != null) {
+                player.sendMessage(ChatColor.RED + "Validation failed, see the console for details.");
+                plugin.getLogger().log(Level.WARNING, "Could not validate arenas", throwable);
+                return;
+            }
+            int broken = notReady.get();
+            player.sendMessage((broken == 0 ? ChatColor.GREEN : ChatColor.YELLOW) + "" + (checked - broken) + " of " + checked
+                    + " arenas are ready to play.");
+        });
+    }
+
+    /**
+     * Format a duration in milliseconds
+     * @param millis Duration in milliseconds
+     * @return Formatted string
+     */
+    private static String formatMillis(double millis) {
+        return String.format(Locale.ROOT, "%.3fms", millis);
+    }
+
     /**
      * Format location to string
      * @param location Location to format
      * @return Formatted string
      */
-    private String formatLocation(Location location) {
+    static String formatLocation(Location location) {
         return location.getWorld().getName() + ", " +
                 String.format("%.2f", location.getX()) + ", " +
                 String.format("%.2f", location.getY()) + ", " +
@@ -367,11 +558,33 @@ public class ArenaCommand implements CommandExecutor, TabCompleter {
 
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        return complete(args);
+    }
+
+    /**
+     * Compute tab completions. Safe to call from any thread, so it can also serve async tab completion.
+     * @param args Command arguments
+     * @return Completions
+     */
+    public List<String> complete(String[] args) {
+        long start = System.nanoTime();
+        try {
+            return computeCompletions(args);
+        } finally {
+            tabCompleteTimer.recordSince(start);
+        }
+    }
+
+    /**
+     * Compute tab completions
+     * @param args Command arguments
+     * @return Completions
+     */
+    private List<String> computeCompletions(String[] args) {
         List<String> completions = new ArrayList<>();
 
         if (args.length == 1) {
-            String[] subCommands = {"create", "delete", "setup", "tp", "list", "info"};
-            return filterCompletions(args[0], subCommands);
+            return filterCompletions(args[0], SUB_COMMANDS);
         } else if (args.length >= 2) {
             String subCommand = args[0].toLowerCase();
 
@@ -380,26 +593,31 @@ public class ArenaCommand implements CommandExecutor, TabCompleter {
                 case "tp":
                 case "info":
                     if (args.length == 2) {
-                        return filterCompletions(args[1], arenaManager.getArenas().keySet().toArray(new String[0]));
+                        return arenaManager.completeArenaNames(args[1], maxCompletions);
+                    }
+                    break;
+
+                case "migrate":
+                    if (args.length == 2) {
+                        return filterCompletions(args[1], STORAGE_TYPES);
                     }
                     break;
 
                 case "setup":
                     if (args.length == 2) {
-                        return filterCompletions(args[1], arenaManager.getArenas().keySet().toArray(new String[0]));
+                        return arenaManager.completeArenaNames(args[1], maxCompletions);
                     } else if (args.length == 3) {
-                        String[] setupOptions = {"pos", "maxPlayers", "spawnpoint", "center", "waitTime"};
-                        return filterCompletions(args[2], setupOptions);
+                        return filterCompletions(args[2], SETUP_OPTIONS);
                     } else if (args.length == 4) {
                         String setupOption = args[2].toLowerCase();
                         if (setupOption.equals("pos")) {
-                            return filterCompletions(args[3], new String[]{"1", "2"});
+                            return filterCompletions(args[3], POSITIONS);
                         } else if (setupOption.equals("maxplayers")) {
-                            return filterCompletions(args[3], IntStream.rangeClosed(1, 10).mapToObj(String::valueOf).toArray(String[]::new));
+                            return filterCompletions(args[3], NUMBERS);
                         } else if (setupOption.equals("spawnpoint")) {
-                            return filterCompletions(args[3], IntStream.rangeClosed(1, 10).mapToObj(String::valueOf).toArray(String[]::new));
+                            return filterCompletions(args[3], NUMBERS);
                         } else if (setupOption.equals("waittime")) {
-                            return filterCompletions(args[3], Arrays.stream(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}).mapToObj(i -> i + "s").toArray(String[]::new));
+                            return filterCompletions(args[3], WAIT_TIMES);
                         }
                     }
                     break;
@@ -415,9 +633,13 @@ public class ArenaCommand implements CommandExecutor, TabCompleter {
      * @param options Completion options
      * @return Filtered completions
      */
-    private List<String> filterCompletions(String partial, String[] options) {
-        return Arrays.stream(options)
-                .filter(option -> option.toLowerCase().startsWith(partial.toLowerCase()))
-                .collect(Collectors.toList());
+    static List<String> filterCompletions(String partial, String[] options) {
+        List<String> completions = new ArrayList<>();
+        for (String option : options) {
+            if (option.regionMatches(true, 0, partial, 0, partial.length())) {
+                completions.add(option);
+            }
+        }
+        return completions;
     }
 }
@@ -0,0 +1,275 @@
+package me.notjoshx.dhoomarenas.countdown;
+
+import me.notjoshx.dhoomarenas.DhoomArenas;
+import me.notjoshx.dhoomarenas.events.ArenaCountdownCancelEvent;
+import me.notjoshx.dhoomarenas.events.ArenaCountdownEvent;
+import me.notjoshx.dhoomarenas.events.ArenaStartEvent;
+import me.notjoshx.dhoomarenas.managers.ArenaWarmupManager;
+import me.notjoshx.dhoomarenas.membership.ArenaMembership;
+import me.notjoshx.dhoomarenas.models.Arena;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Counts down every arena that has enough players, using one repeating task and a hashed timing wheel.
+ * The wheel has one slot per tick of a second and a countdown stays in the slot of the tick it started on,
+ * so each tick only visits the countdowns that are due, and starting or cancelling a countdown is O(1).
+ * A countdown lasts the arena's wait time; when it finishes an {@link ArenaStartEvent} is called and
+ * the arena does not count down again until all of its players have left.
+ * The arena's chunks are kept loaded from the start of the countdown until the countdown is cancelled
+ * or the match ends, so the world is ready when the players are teleported in.
+ */
+public class ArenaCountdownManager {
+    private static final int TICKS_PER_SECOND = 20;
+
+    private final DhoomArenas plugin;
+    private final ArenaMembership membership;
+    private final ArenaWarmupManager warmupManager;
+    private final int minPlayers;
+    private final boolean announce;
+    private final Consumer<Arena> startedListener;
+    private final Countdown[] wheel;
+    private final Map<Arena, Countdown> running;
+    private final Set<Arena> started;
+    private final Set<Arena> warmed;
+    private int cursor;
+    private BukkitTask task;
+
+    /**
+     * Create a new countdown manager
+     * @param plugin Plugin instance
+     * @param membership Registry of the players in each arena
+     * @param warmupManager Warm-up manager that keeps arenas loaded while they count down and play
+     * @param minPlayers Players needed to start counting down, capped at each arena's max players
+     * @param announce True to tell the players in an arena how long is left
+     * @param startedListener Called on the main thread when an arena starts or becomes startable again
+     */
+    public ArenaCountdownManager(DhoomArenas plugin, ArenaMembership membership, ArenaWarmupManager warmupManager,
+                                 int minPlayers, boolean announce, Consumer<Arena> startedListener) {
+        this.plugin = plugin;
+        this.membership = membership;
+        this.warmupManager = warmupManager;
+        this.minPlayers = Math.max(1, minPlayers);
+        this.announce = announce;
+        this.startedListener = startedListener;
+        this.wheel = new Countdown[TICKS_PER_SECOND];
+        this.running = new ConcurrentHashMap<>();
+        this.started = ConcurrentHashMap.newKeySet();
+        this.warmed = new HashSet<>();
+    }
+
+    /**
+     * Start turning the wheel
+     */
+    public void start() {
+        if (task == null) {
+            task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    /**
+     * Stop turning the wheel and drop every countdown
+     */
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = null;
+        }
+        running.clear();
+        started.clear();
+        for (Arena arena : warmed) {
+            warmupManager.release(arena);
+        }
+        warmed.clear();
+    }
+
+    /**
+     * Start or cancel an arena's countdown after its players changed.
+     * Safe to call from any thread; off the main thread the update is done on the next tick.
+     * @param arena Arena whose players changed
+     */
+    public void update(Arena arena) {
+        if (!plugin.getServer().isPrimaryThread()) {
+            plugin.getServer().getScheduler().runTask(plugin, () -> update(arena));
+            return;
+        }
+
+        int players = membership.getPlayerCount(arena);
+        if (players == 0 && started.remove(arena)) {
+            // The match is over
+            releaseWarmup(arena);
+            startedListener.accept(arena);
+        }
+
+        int threshold = Math.max(1, Math.min(minPlayers, arena.getMaxPlayers()));
+        Countdown countdown = running.get(arena);
+        if (countdown == null) {
+            if (players >= threshold && !started.contains(arena)) {
+                begin(arena);
+            }
+        } else if (players < threshold) {
+            remove(countdown);
+            releaseWarmup(arena);
+            plugin.getServer().getPluginManager().callEvent(new ArenaCountdownCancelEvent(arena, countdown.secondsLeft));
+        }
+    }
+
+    /**
+     * Drop an arena's countdown without calling any event, e.g. because it was deleted
+     * @param arena Arena
+     */
+    public void discard(Arena arena) {
+        Countdown countdown = running.get(arena);
+        if (countdown != null) {
+            remove(countdown);
+        }
+        started.remove(arena);
+        releaseWarmup(arena);
+    }
+
+    /**
+     * Get the seconds until an arena starts
+     * @param arena Arena
+     * @return Seconds left, or -1 if the arena is not counting down
+     */
+    public int getSecondsLeft(Arena arena) {
+        Countdown countdown = running.get(arena);
+        return countdown != null ? countdown.secondsLeft : -1;
+    }
+
+    /**
+     * Check if an arena's countdown has finished and it still has players
+     * @param arena Arena
+     * @return True if started
+     */
+    public boolean isStarted(Arena arena) {
+        return started.contains(arena);
+    }
+
+    /**
+     * Start counting down an arena from its wait time
+     * @param arena Arena
+     */
+    private void begin(Arena arena) {
+        // Load the arena while the players wait instead of when they are teleported in
+        if (warmed.add(arena)) {
+            warmupManager.warm(arena);
+        }
+
+        int seconds = arena.getWaitTimeSeconds();
+        if (seconds <= 0) {
+            finish(arena);
+            return;
+        }
+
+        // The slot handled last comes around again in exactly one second
+        int slot = (cursor + TICKS_PER_SECOND - 1) % TICKS_PER_SECOND;
+        Countdown countdown = new Countdown(arena, slot, seconds);
+        countdown.next = wheel[slot];
+        if (countdown.next != null) {
+            countdown.next.previous = countdown;
+        }
+        wheel[slot] = countdown;
+        running.put(arena, countdown);
+        announce(arena, seconds, true);
+        plugin.getServer().getPluginManager().callEvent(new ArenaCountdownEvent(arena, seconds));
+    }
+
+    /**
+     * Stop keeping an arena's chunks loaded, if its countdown loaded them
+     * @param arena Arena
+     */
+    private void releaseWarmup(Arena arena) {
+        if (warmed.remove(arena)) {
+            warmupManager.release(arena);
+        }
+    }
+
+    /**
+     * Unlink a countdown from the wheel
+     * @param countdown Countdown
+     */
+    private void remove(Countdown countdown) {
+        if (countdown.removed) {
+            return;
+        }
+        countdown.removed = true;
+        running.remove(countdown.arena, countdown);
+
+        // The removed countdown keeps its own next link so a tick walking the slot can step past it
+        if (countdown.previous != null) {
+            countdown.previous.next = countdown.next;
+        } else {
+            wheel[countdown.slot] = countdown.next;
+        }
+        if (countdown.next != null) {
+            countdown.next.previous = countdown.previous;
+        }
+    }
+
+    /**
+     * Mark an arena as started and tell listeners
+     * @param arena Arena
+     */
+    private void finish(Arena arena) {
+        started.add(arena);
+        startedListener.accept(arena);
+        plugin.getServer().getPluginManager().callEvent(new ArenaStartEvent(arena, membership.getPlayers(arena)));
+    }
+
+    /**
+     * Advance every countdown in the current slot by one second
+     */
+    private void tick() {
+        Countdown countdown = wheel[cursor];
+        cursor = (cursor + 1) % TICKS_PER_SECOND;
+
+        while (countdown != null) {
+            // Event handlers may remove any countdown, including the next one
+            Countdown next = countdown.next;
+            if (!countdown.removed) {
+                int seconds = --countdown.secondsLeft;
+                if (seconds > 0) {
+                    announce(countdown.arena, seconds, false);
+                    plugin.getServer().getPluginManager().callEvent(new ArenaCountdownEvent(countdown.arena, seconds));
+                } else {
+                    remove(countdown);
+                    finish(countdown.arena);
+                }
+            }
+            countdown = next;
+        }
+    }
+
+    /**
+     * Tell the players in an arena how long is left, when the countdown starts, every ten seconds and for the last five
+     * @param arena Arena
+     * @param seconds Seconds left
+     * @param first True if the countdown just started
+     */
+    private void announce(Arena arena, int seconds, boolean first) {
+        if (!announce || (!first && seconds > 5 && seconds % 10 != 0)) {
+            return;
+        }
+
+        String message = ChatColor.YELLOW + "Arena " + arena.getName() + " starts in " + ChatColor.WHITE + seconds
+                + ChatColor.YELLOW + (seconds == 1 ? " second" : " seconds");
+        for (UUID playerId : membership.getPlayers(arena)) {
+            Player player = plugin.getServer().getPlayer(playerId);
+            if (player != null) {
+                player.sendMessage(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package me.notjoshx.dhoomarenas.countdown;
+
+import me.notjoshx.dhoomarenas.models.Arena;
+
+/**
+ * One arena's running countdown, linked into a slot of the countdown wheel
+ */
+final class Countdown {
+    final Arena arena;
+    final int slot;
+    volatile int secondsLeft;
+    boolean removed;
+    Countdown previous;
+    Countdown next;
+
+    Countdown(Arena arena, int slot, int secondsLeft) {
+        this.arena = arena;
+        this.slot = slot;
+        this.secondsLeft = secondsLeft;
+    }
+}
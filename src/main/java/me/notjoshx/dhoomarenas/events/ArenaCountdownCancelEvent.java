@@ -0,0 +1,40 @@
+package me.notjoshx.dhoomarenas.events;
+
+import me.notjoshx.dhoomarenas.models.Arena;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Called on the main thread when an arena's countdown stops because too few players are left
+ */
+public class ArenaCountdownCancelEvent extends ArenaEvent {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final int secondsLeft;
+
+    /**
+     * Create a new countdown cancel event
+     * @param arena Arena that was counting down
+     * @param secondsLeft Seconds that were left
+     */
+    public ArenaCountdownCancelEvent(Arena arena, int secondsLeft) {
+        super(arena);
+        this.secondsLeft = secondsLeft;
+    }
+
+    /**
+     * Get the seconds that were left when the countdown stopped
+     * @return Seconds left
+     */
+    public int getSecondsLeft() {
+        return secondsLeft;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -0,0 +1,40 @@
+package me.notjoshx.dhoomarenas.events;
+
+import me.notjoshx.dhoomarenas.models.Arena;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Called on the main thread when an arena's countdown starts and then once every second while it runs
+ */
+public class ArenaCountdownEvent extends ArenaEvent {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final int secondsLeft;
+
+    /**
+     * Create a new countdown event
+     * @param arena Arena counting down
+     * @param secondsLeft Seconds until the arena starts
+     */
+    public ArenaCountdownEvent(Arena arena, int secondsLeft) {
+        super(arena);
+        this.secondsLeft = secondsLeft;
+    }
+
+    /**
+     * Get the seconds until the arena starts
+     * @return Seconds left, at least 1
+     */
+    public int getSecondsLeft() {
+        return secondsLeft;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
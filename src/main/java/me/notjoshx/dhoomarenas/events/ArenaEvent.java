@@ -0,0 +1,35 @@
+package me.notjoshx.dhoomarenas.events;
+
+import me.notjoshx.dhoomarenas.models.Arena;
+import org.bukkit.event.Event;
+
+/**
+ * Base class of events about one arena
+ */
+public abstract class ArenaEvent extends Event {
+    private final Arena arena;
+
+    /**
+     * Create a new arena event
+     * @param arena Arena
+     */
+    protected ArenaEvent(Arena arena) {
+        this.arena = arena;
+    }
+
+    /**
+     * Get the arena
+     * @return Arena
+     */
+    public Arena getArena() {
+        return arena;
+    }
+
+    /**
+     * Get the arena's name
+     * @return Arena name
+     */
+    public String getArenaName() {
+        return arena.getName();
+    }
+}
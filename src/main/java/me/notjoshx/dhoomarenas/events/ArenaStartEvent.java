@@ -0,0 +1,44 @@
+package me.notjoshx.dhoomarenas.events;
+
+import me.notjoshx.dhoomarenas.models.Arena;
+import org.bukkit.event.HandlerList;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Called on the main thread when an arena's countdown finishes.
+ * The arena does not count down again until all of its players have left.
+ */
+public class ArenaStartEvent extends ArenaEvent {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final Set<UUID> players;
+
+    /**
+     * Create a new start event
+     * @param arena Arena that started
+     * @param players Players in the arena
+     */
+    public ArenaStartEvent(Arena arena, Set<UUID> players) {
+        super(arena);
+        this.players = players;
+    }
+
+    /**
+     * Get the players in the arena
+     * @return Live, unmodifiable view of player UUIDs
+     */
+    public Set<UUID> getPlayers() {
+        return players;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -0,0 +1,127 @@
+package me.notjoshx.dhoomarenas.index;
+
+import me.notjoshx.dhoomarenas.membership.ArenaMembership;
+import me.notjoshx.dhoomarenas.models.Arena;
+import me.notjoshx.dhoomarenas.models.ArenaSnapshot;
+import me.notjoshx.dhoomarenas.models.ArenaValidation;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Ready, open arenas with free slots, ordered for matchmaking: most free slots first, then fewest players.
+ * Entries are updated incrementally whenever an arena's players or setup change, in O(log n).
+ * Finding an arena for a party walks from the head of the tree and stops at the first arena with too few
+ * free slots, so it is O(log n) unless the filter rejects many arenas.
+ * Safe to use from any thread.
+ */
+public class ArenaAvailabilityIndex {
+    private static final Comparator<Entry> ORDER = Comparator.<Entry>comparingInt(entry -> -entry.freeSlots)
+            .thenComparingInt(entry -> entry.players)
+            .thenComparing(entry -> entry.arena.getName())
+            .thenComparingInt(entry -> System.identityHashCode(entry.arena));
+
+    private final ArenaMembership membership;
+    private final NavigableSet<Entry> entries;
+    private final Map<Arena, Entry> byArena;
+
+    /**
+     * Create a new, empty index
+     * @param membership Registry the player counts are read from
+     */
+    public ArenaAvailabilityIndex(ArenaMembership membership) {
+        this.membership = membership;
+        this.entries = new TreeSet<>(ORDER);
+        this.byArena = new HashMap<>();
+    }
+
+    /**
+     * Re-rank an arena after its players, setup or readiness changed.
+     * The player count is read while holding the index lock, so concurrent updates never leave a stale count behind.
+     * @param arena Arena
+     * @param open False to leave the arena out regardless of its state, e.g. because its match has started
+     */
+    public synchronized void update(Arena arena, boolean open) {
+        Entry old = byArena.remove(arena);
+        if (old != null) {
+            entries.remove(old);
+        }
+
+        if (!open) {
+            return;
+        }
+        ArenaValidation validation = arena.getValidation();
+        if (!validation.isReady()) {
+            return;
+        }
+        ArenaSnapshot snapshot = validation.getSnapshot();
+
+        int players = membership.getPlayerCount(arena);
+        int freeSlots = snapshot.getMaxPlayers() - players;
+        if (freeSlots <= 0) {
+            return;
+        }
+
+        Entry entry = new Entry(arena, freeSlots, players);
+        entries.add(entry);
+        byArena.put(arena, entry);
+    }
+
+    /**
+     * Remove an arena, e.g. because it was deleted
+     * @param arena Arena
+     */
+    public synchronized void remove(Arena arena) {
+        Entry entry = byArena.remove(arena);
+        if (entry != null) {
+            entries.remove(entry);
+        }
+    }
+
+    /**
+     * Find the least loaded arena with room for a party.
+     * Another thread may fill the arena before the party joins, so check the result of joining.
+     * @param partySize Players that need a slot
+     * @param filter Extra condition on the arena, called while holding the index lock so it should be cheap, or null
+     * @return Arena, or null if no arena has enough free slots
+     */
+    public synchronized Arena find(int partySize, Predicate<ArenaSnapshot> filter) {
+        for (Entry entry : entries) {
+            if (entry.freeSlots < partySize) {
+                // Every following arena has even fewer free slots
+                return null;
+            }
+            if (filter == null || filter.test(entry.arena.getSnapshot())) {
+                return entry.arena;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the number of arenas with free slots
+     * @return Listed arena count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Ranking of one arena, replaced whenever the arena changes
+     */
+    private static final class Entry {
+        private final Arena arena;
+        private final int freeSlots;
+        private final int players;
+
+        private Entry(Arena arena, int freeSlots, int players) {
+            this.arena = arena;
+            this.freeSlots = freeSlots;
+            this.players = players;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package me.notjoshx.dhoomarenas.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted, case-insensitive index of arena names for prefix lookups such as tab completion.
+ * Safe to use from any thread.
+ */
+public class ArenaNameIndex {
+    private final NavigableMap<String, String> names;
+
+    /**
+     * Create a new, empty name index
+     */
+    public ArenaNameIndex() {
+        this.names = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Add an arena name
+     * @param name Arena name
+     */
+    public void add(String name) {
+        names.put(key(name), name);
+    }
+
+    /**
+     * Remove an arena name
+     * @param name Arena name
+     */
+    public void remove(String name) {
+        names.remove(key(name));
+    }
+
+    /**
+     * Find arena names starting with a prefix, ignoring case
+     * @param prefix Prefix to match
+     * @param limit Maximum number of names to return
+     * @return Matching names in case-insensitive order
+     */
+    public List<String> complete(String prefix, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+        List<String> matches = new ArrayList<>(Math.min(limit, 16));
+        for (Map.Entry<String, String> entry : names.tailMap(lowerPrefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(lowerPrefix) || matches.size() >= limit) {
+                break;
+            }
+            matches.add(entry.getValue());
+        }
+        return matches;
+    }
+
+    /**
+     * Get the number of indexed names
+     * @return Name count
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Remove every name
+     */
+    public void clear() {
+        names.clear();
+    }
+
+    // Names differing only in case get distinct keys that still sort next to each other
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT) + '\u0000' + name;
+    }
+}
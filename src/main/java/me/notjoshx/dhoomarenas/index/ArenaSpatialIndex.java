@@ -0,0 +1,293 @@
+package me.notjoshx.dhoomarenas.index;
+
+import me.notjoshx.dhoomarenas.models.Arena;
+import me.notjoshx.dhoomarenas.models.ArenaSnapshot;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.util.BoundingBox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chunk-keyed grid of arena bounds per world, answering "which arena contains this point" without scanning every arena.
+ * Arenas spanning more than {@value #MAX_ARENA_CELLS} chunks are kept in a per-world list that every lookup checks
+ * instead, so an accidentally huge region never fills the grid with millions of cells.
+ * Writes are synchronized; reads are lock-free and safe from any thread.
+ */
+public class ArenaSpatialIndex {
+    private static final int MAX_QUERY_CELLS = 4096;
+    private static final int MAX_ARENA_CELLS = 1024;
+
+    private final Map<String, Map<Long, Entry[]>> worlds;
+    private final Map<String, Entry[]> large;
+    private final Map<Arena, Entry> entries;
+
+    /**
+     * Create a new, empty spatial index
+     */
+    public ArenaSpatialIndex() {
+        this.worlds = new ConcurrentHashMap<>();
+        this.large = new ConcurrentHashMap<>();
+        this.entries = new HashMap<>();
+    }
+
+    /**
+     * Index an arena by its current bounds, replacing any previous entry.
+     * Arenas without both positions in the same world are removed from the index.
+     * @param arena Arena to index
+     */
+    public synchronized void update(Arena arena) {
+        remove(arena);
+
+        ArenaSnapshot snapshot = arena.getSnapshot();
+        if (!snapshot.hasBounds()) {
+            return;
+        }
+
+        Entry entry = new Entry(arena, snapshot.getBoundsWorld(), snapshot.getMinX(), snapshot.getMinY(), snapshot.getMinZ(),
+                snapshot.getMaxX(), snapshot.getMaxY(), snapshot.getMaxZ());
+        entries.put(arena, entry);
+        if (entry.isLarge()) {
+            large.merge(entry.world, new Entry[]{entry}, ArenaSpatialIndex::insert);
+            return;
+        }
+
+        Map<Long, Entry[]> cells = worlds.computeIfAbsent(entry.world, world -> new ConcurrentHashMap<>());
+        for (int chunkX = entry.minX >> 4; chunkX <= entry.maxX >> 4; chunkX++) {
+            for (int chunkZ = entry.minZ >> 4; chunkZ <= entry.maxZ >> 4; chunkZ++) {
+                cells.merge(cellKey(chunkX, chunkZ), new Entry[]{entry}, ArenaSpatialIndex::insert);
+            }
+        }
+    }
+
+    /**
+     * Remove an arena from the index
+     * @param arena Arena to remove
+     */
+    public synchronized void remove(Arena arena) {
+        Entry entry = entries.remove(arena);
+        if (entry == null) {
+            return;
+        }
+        if (entry.isLarge()) {
+            large.computeIfPresent(entry.world, (world, cell) -> without(cell, entry));
+            return;
+        }
+
+        Map<Long, Entry[]> cells = worlds.get(entry.world);
+        for (int chunkX = entry.minX >> 4; chunkX <= entry.maxX >> 4; chunkX++) {
+            for (int chunkZ = entry.minZ >> 4; chunkZ <= entry.maxZ >> 4; chunkZ++) {
+                cells.computeIfPresent(cellKey(chunkX, chunkZ), (key, cell) -> without(cell, entry));
+            }
+        }
+    }
+
+    /**
+     * Rebuild the index from scratch
+     * @param arenas All arenas
+     */
+    public synchronized void rebuild(Collection<Arena> arenas) {
+        worlds.clear();
+        large.clear();
+        entries.clear();
+        for (Arena arena : arenas) {
+            update(arena);
+        }
+    }
+
+    /**
+     * Get the arena containing a location. When arenas overlap, the smallest one wins.
+     * @param location Location to look up
+     * @return Arena, or null if the location is not inside any arena
+     */
+    public Arena getArenaAt(Location location) {
+        World world = location.getWorld();
+        if (world == null) {
+            return null;
+        }
+        return getArenaAt(world.getName(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    /**
+     * Get the arena containing a block position. When arenas overlap, the smallest one wins.
+     * @param world World name
+     * @param x Block X
+     * @param y Block Y
+     * @param z Block Z
+     * @return Arena, or null if the position is not inside any arena
+     */
+    public Arena getArenaAt(String world, int x, int y, int z) {
+        Map<Long, Entry[]> cells = worlds.get(world);
+        Entry[] cell = cells != null ? cells.get(cellKey(x >> 4, z >> 4)) : null;
+
+        // Cells and large lists are sorted by volume, so the first match of each is its smallest arena
+        Entry found = null;
+        if (cell != null) {
+            for (Entry entry : cell) {
+                if (entry.contains(x, y, z)) {
+                    found = entry;
+                    break;
+                }
+            }
+        }
+
+        Entry[] largeEntries = large.get(world);
+        if (largeEntries != null) {
+            for (Entry entry : largeEntries) {
+                if (found != null && entry.volume >= found.volume) {
+                    break;
+                }
+                if (entry.contains(x, y, z)) {
+                    found = entry;
+                    break;
+                }
+            }
+        }
+        return found != null ? found.arena : null;
+    }
+
+    /**
+     * Get all arenas whose bounds intersect a box
+     * @param world World of the box
+     * @param box Box to test, in block coordinates
+     * @return Intersecting arenas
+     */
+    public List<Arena> getArenasIntersecting(World world, BoundingBox box) {
+        return getArenasIntersecting(world.getName(), (int) Math.floor(box.getMinX()), (int) Math.floor(box.getMinY()),
+                (int) Math.floor(box.getMinZ()), (int) Math.floor(box.getMaxX()), (int) Math.floor(box.getMaxY()),
+                (int) Math.floor(box.getMaxZ()));
+    }
+
+    /**
+     * Get all arenas whose bounds intersect a block region
+     * @param world World name
+     * @param minX Minimum block X
+     * @param minY Minimum block Y
+     * @param minZ Minimum block Z
+     * @param maxX Maximum block X
+     * @param maxY Maximum block Y
+     * @param maxZ Maximum block Z
+     * @return Intersecting arenas
+     */
+    public List<Arena> getArenasIntersecting(String world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        Set<Arena> result = new LinkedHashSet<>();
+        Entry[] largeEntries = large.get(world);
+        if (largeEntries != null) {
+            addIntersecting(largeEntries, result, minX, minY, minZ, maxX, maxY, maxZ);
+        }
+
+        Map<Long, Entry[]> cells = worlds.get(world);
+        if (cells == null) {
+            return new ArrayList<>(result);
+        }
+
+        long cellCount = ((long) (maxX >> 4) - (minX >> 4) + 1) * ((long) (maxZ >> 4) - (minZ >> 4) + 1);
+        if (cellCount > MAX_QUERY_CELLS) {
+            // Huge boxes are cheaper to answer by checking every arena of the world once
+            for (Entry[] cell : cells.values()) {
+                addIntersecting(cell, result, minX, minY, minZ, maxX, maxY, maxZ);
+            }
+            return new ArrayList<>(result);
+        }
+
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                Entry[] cell = cells.get(cellKey(chunkX, chunkZ));
+                if (cell != null) {
+                    addIntersecting(cell, result, minX, minY, minZ, maxX, maxY, maxZ);
+                }
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static void addIntersecting(Entry[] cell, Set<Arena> result, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        for (Entry entry : cell) {
+            if (entry.intersects(minX, minY, minZ, maxX, maxY, maxZ)) {
+                result.add(entry.arena);
+            }
+        }
+    }
+
+    private static long cellKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static Entry[] insert(Entry[] cell, Entry[] added) {
+        Entry entry = added[0];
+        Entry[] result = Arrays.copyOf(cell, cell.length + 1);
+        int index = cell.length;
+        while (index > 0 && result[index - 1].volume > entry.volume) {
+            result[index] = result[index - 1];
+            index--;
+        }
+        result[index] = entry;
+        return result;
+    }
+
+    private static Entry[] without(Entry[] cell, Entry entry) {
+        if (cell.length == 1) {
+            return cell[0] == entry ? null : cell;
+        }
+
+        Entry[] result = new Entry[cell.length - 1];
+        int index = 0;
+        for (Entry existing : cell) {
+            if (existing != entry) {
+                if (index == result.length) {
+                    return cell;
+                }
+                result[index++] = existing;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Normalized block bounds of an indexed arena
+     */
+    private static final class Entry {
+        private final Arena arena;
+        private final String world;
+        private final int minX;
+        private final int minY;
+        private final int minZ;
+        private final int maxX;
+        private final int maxY;
+        private final int maxZ;
+        private final long volume;
+
+        private Entry(Arena arena, String world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            this.arena = arena;
+            this.world = world;
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+            this.volume = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        }
+
+        private boolean isLarge() {
+            return ((long) (maxX >> 4) - (minX >> 4) + 1) * ((long) (maxZ >> 4) - (minZ >> 4) + 1) > MAX_ARENA_CELLS;
+        }
+
+        private boolean contains(int x, int y, int z) {
+            return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+        }
+
+        private boolean intersects(int otherMinX, int otherMinY, int otherMinZ, int otherMaxX, int otherMaxY, int otherMaxZ) {
+            return otherMinX <= maxX && otherMaxX >= minX && otherMinY <= maxY && otherMaxY >= minY
+                    && otherMinZ <= maxZ && otherMaxZ >= minZ;
+        }
+    }
+}
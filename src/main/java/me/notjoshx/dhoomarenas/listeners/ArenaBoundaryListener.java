@@ -0,0 +1,63 @@
+package me.notjoshx.dhoomarenas.listeners;
+
+import me.notjoshx.dhoomarenas.managers.ArenaBoundaryManager;
+import me.notjoshx.dhoomarenas.managers.ArenaManager;
+import me.notjoshx.dhoomarenas.models.Arena;
+import me.notjoshx.dhoomarenas.models.ArenaSnapshot;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+/**
+ * Keeps the players of an arena inside its region
+ */
+public class ArenaBoundaryListener implements Listener {
+    private final ArenaManager arenaManager;
+    private final ArenaBoundaryManager boundaryManager;
+
+    /**
+     * Create a new boundary listener
+     * @param arenaManager Arena manager
+     */
+    public ArenaBoundaryListener(ArenaManager arenaManager) {
+        this.arenaManager = arenaManager;
+        this.boundaryManager = arenaManager.getBoundaryManager();
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        // Most move events only turn the head or move within the same block
+        if (!event.hasChangedBlock()) {
+            return;
+        }
+
+        Arena arena = boundaryManager.getEnforcedArena(event.getPlayer().getUniqueId());
+        if (arena == null) {
+            return;
+        }
+
+        ArenaSnapshot snapshot = arena.getSnapshot();
+        if (!ArenaBoundaryManager.isInside(snapshot, event.getTo())) {
+            boundaryManager.handleViolation(event, snapshot);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        Arena arena = boundaryManager.getEnforcedArena(event.getPlayer().getUniqueId());
+        if (arena == null || ArenaBoundaryManager.isInside(arena.getSnapshot(), event.getTo())) {
+            return;
+        }
+
+        PlayerTeleportEvent.TeleportCause cause = event.getCause();
+        if (cause == PlayerTeleportEvent.TeleportCause.ENDER_PEARL || cause == PlayerTeleportEvent.TeleportCause.CHORUS_FRUIT) {
+            boundaryManager.recordViolation();
+            event.setCancelled(true);
+        } else {
+            // Sent out of the arena on purpose, e.g. back to the lobby
+            arenaManager.leaveArena(event.getPlayer().getUniqueId());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package me.notjoshx.dhoomarenas.listeners;
+
+import me.notjoshx.dhoomarenas.managers.ArenaManager;
+import me.notjoshx.dhoomarenas.models.Arena;
+import me.notjoshx.dhoomarenas.reset.ArenaResetManager;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockIgniteEvent;
+import org.bukkit.event.block.BlockMultiPlaceEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.player.PlayerBucketFillEvent;
+
+import java.util.List;
+
+/**
+ * Records block changes inside tracked arenas into their change journals
+ */
+public class ArenaChangeListener implements Listener {
+    private final ArenaManager arenaManager;
+    private final ArenaResetManager resetManager;
+
+    /**
+     * Create a new change listener
+     * @param arenaManager Arena manager
+     */
+    public ArenaChangeListener(ArenaManager arenaManager) {
+        this.arenaManager = arenaManager;
+        this.resetManager = arenaManager.getResetManager();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        if (event instanceof BlockMultiPlaceEvent) {
+            for (BlockState state : ((BlockMultiPlaceEvent) event).getReplacedBlockStates()) {
+                record(state);
+            }
+            return;
+        }
+        record(event.getBlockReplacedState());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        record(event.getBlock());
+        record(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        record(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFromTo(BlockFromToEvent event) {
+        record(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockIgnite(BlockIgniteEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketEmpty(PlayerBucketEmptyEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketFill(PlayerBucketFillEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFade(BlockFadeEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockSpread(BlockSpreadEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        recordPiston(event.getBlock(), event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        recordPiston(event.getBlock(), event.getBlocks(), event.getDirection());
+    }
+
+    private void recordPiston(Block piston, List<Block> moved, BlockFace direction) {
+        if (!resetManager.isTrackingAny()) {
+            return;
+        }
+
+        // The reported direction differs between extending and retracting, so cover both sides of every block
+        BlockFace opposite = direction.getOppositeFace();
+        record(piston);
+        record(piston.getRelative(direction));
+        record(piston.getRelative(opposite));
+        for (Block block : moved) {
+            record(block);
+            record(block.getRelative(direction));
+            record(block.getRelative(opposite));
+        }
+    }
+
+    private void record(List<Block> blocks) {
+        if (!resetManager.isTrackingAny()) {
+            return;
+        }
+        for (Block block : blocks) {
+            record(block);
+        }
+    }
+
+    private void record(Block block) {
+        if (resetManager.isTrackingAny()) {
+            record(block.getWorld(), block.getX(), block.getY(), block.getZ(), block.getBlockData());
+        }
+    }
+
+    private void record(BlockState state) {
+        if (resetManager.isTrackingAny()) {
+            record(state.getWorld(), state.getX(), state.getY(), state.getZ(), state.getBlockData());
+        }
+    }
+
+    private void record(World world, int x, int y, int z, BlockData original) {
+        Arena arena = arenaManager.getArenaAt(world.getName(), x, y, z);
+        if (arena != null) {
+            resetManager.recordChange(arena, x, y, z, original);
+        }
+    }
+}
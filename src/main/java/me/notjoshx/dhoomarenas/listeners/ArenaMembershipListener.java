@@ -0,0 +1,27 @@
+package me.notjoshx.dhoomarenas.listeners;
+
+import me.notjoshx.dhoomarenas.managers.ArenaManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Removes players from their arena when they leave the server
+ */
+public class ArenaMembershipListener implements Listener {
+    private final ArenaManager arenaManager;
+
+    /**
+     * Create a new membership listener
+     * @param arenaManager Arena manager
+     */
+    public ArenaMembershipListener(ArenaManager arenaManager) {
+        this.arenaManager = arenaManager;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        arenaManager.leaveArena(event.getPlayer().getUniqueId());
+    }
+}
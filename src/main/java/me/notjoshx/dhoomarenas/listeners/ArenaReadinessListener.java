@@ -0,0 +1,38 @@
+package me.notjoshx.dhoomarenas.listeners;
+
+import me.notjoshx.dhoomarenas.DhoomArenas;
+import me.notjoshx.dhoomarenas.models.WorldRegistry;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Re-checks which arenas are ready when a world loads or unloads, as arenas need every world they use to be loaded
+ */
+public class ArenaReadinessListener implements Listener {
+    private final DhoomArenas plugin;
+
+    /**
+     * Create a new readiness listener
+     * @param plugin Plugin instance
+     */
+    public ArenaReadinessListener(DhoomArenas plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        plugin.getArenaManager().refreshReadiness();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        // The world can still be looked up until the event is over, so check once it is really gone
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            WorldRegistry.invalidate();
+            plugin.getArenaManager().refreshReadiness();
+        });
+    }
+}
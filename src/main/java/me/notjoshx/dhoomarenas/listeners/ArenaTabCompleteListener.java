@@ -0,0 +1,67 @@
+package me.notjoshx.dhoomarenas.listeners;
+
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
+import me.notjoshx.dhoomarenas.commands.ArenaCommand;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Serves /dhoomarenas tab completion from Paper's async tab-complete event, so it never runs on the main thread
+ */
+public class ArenaTabCompleteListener implements Listener {
+    private final ArenaCommand arenaCommand;
+    private final Set<String> labels;
+
+    /**
+     * Create a new tab-complete listener
+     * @param arenaCommand Command providing the completions
+     * @param command Registered command, used for its name and aliases
+     */
+    public ArenaTabCompleteListener(ArenaCommand arenaCommand, PluginCommand command) {
+        this.arenaCommand = arenaCommand;
+        this.labels = new HashSet<>();
+        labels.add(command.getName().toLowerCase(Locale.ROOT));
+        for (String alias : command.getAliases()) {
+            labels.add(alias.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    public void onAsyncTabComplete(AsyncTabCompleteEvent event) {
+        if (event.isHandled() || !event.isCommand()) {
+            return;
+        }
+
+        String buffer = event.getBuffer();
+        int space = buffer.indexOf(' ');
+        if (space < 0) {
+            // Still typing the command itself
+            return;
+        }
+
+        String label = buffer.substring(buffer.startsWith("/") ? 1 : 0, space).toLowerCase(Locale.ROOT);
+        int namespace = label.indexOf(':');
+        if (namespace >= 0) {
+            label = label.substring(namespace + 1);
+        }
+        if (!labels.contains(label)) {
+            return;
+        }
+
+        event.setHandled(true);
+        if (!event.getSender().hasPermission("dhoomarenas.admin")) {
+            event.setCompletions(Collections.emptyList());
+            return;
+        }
+
+        String[] tokens = buffer.split(" ", -1);
+        event.setCompletions(arenaCommand.complete(Arrays.copyOfRange(tokens, 1, tokens.length)));
+    }
+}
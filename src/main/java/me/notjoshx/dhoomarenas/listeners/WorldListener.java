@@ -0,0 +1,24 @@
+package me.notjoshx.dhoomarenas.listeners;
+
+import me.notjoshx.dhoomarenas.models.WorldRegistry;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Keeps the world registry in step with loaded worlds, so arena locations resolve once their world loads
+ */
+public class WorldListener implements Listener {
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onWorldLoad(WorldLoadEvent event) {
+        WorldRegistry.register(event.getWorld());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        WorldRegistry.unregister(event.getWorld());
+    }
+}
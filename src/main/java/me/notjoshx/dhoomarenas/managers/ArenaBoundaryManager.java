@@ -0,0 +1,103 @@
+package me.notjoshx.dhoomarenas.managers;
+
+import me.notjoshx.dhoomarenas.DhoomArenas;
+import me.notjoshx.dhoomarenas.countdown.ArenaCountdownManager;
+import me.notjoshx.dhoomarenas.membership.ArenaMembership;
+import me.notjoshx.dhoomarenas.models.Arena;
+import me.notjoshx.dhoomarenas.models.ArenaSnapshot;
+import me.notjoshx.dhoomarenas.models.WorldRegistry;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.event.player.PlayerMoveEvent;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the players of an arena inside its region while its match is running, i.e. once its countdown has finished.
+ * Players waiting for the countdown may be anywhere, e.g. in a lobby outside the arena.
+ * The check runs on every block an arena member moves into, so it only compares the arena's precomputed
+ * block bounds and never allocates, not even when a player has to be sent back.
+ * All methods must be called from the main thread.
+ */
+public class ArenaBoundaryManager {
+    private final ArenaMembership membership;
+    private final ArenaCountdownManager countdownManager;
+    private final boolean pushBack;
+    private final Location target;
+    private final LongAdder violations;
+
+    /**
+     * Create a new boundary manager
+     * @param plugin Plugin instance
+     * @param membership Registry of the players in each arena
+     * @param countdownManager Countdown manager that knows which arenas have started
+     * @param pushBack True to undo the step that left the arena, false to always send players to the arena center
+     */
+    public ArenaBoundaryManager(DhoomArenas plugin, ArenaMembership membership, ArenaCountdownManager countdownManager, boolean pushBack) {
+        this.membership = membership;
+        this.countdownManager = countdownManager;
+        this.pushBack = pushBack;
+        // Reused for every teleport to a center; the server copies it before the next move event
+        this.target = new Location(null, 0.0D, 0.0D, 0.0D);
+        this.violations = plugin.getMetrics().counter("boundary_violations");
+    }
+
+    /**
+     * Get the arena a player is kept inside
+     * @param playerId Player UUID
+     * @return Arena, or null if the player is not in one or its match has not started
+     */
+    public Arena getEnforcedArena(UUID playerId) {
+        Arena arena = membership.getArena(playerId);
+        return arena != null && countdownManager.isStarted(arena) ? arena : null;
+    }
+
+    /**
+     * Check if a location is inside an arena's region
+     * @param snapshot Arena snapshot
+     * @param location Location
+     * @return True if inside, or if the arena has no region to enforce
+     */
+    public static boolean isInside(ArenaSnapshot snapshot, Location location) {
+        World world = location.getWorld();
+        return !snapshot.hasBounds() || world != null
+                && snapshot.contains(world.getName(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    /**
+     * Handle a move that would take a player out of their arena.
+     * Pushes the player back if they came from inside, otherwise sends them to the arena center.
+     * @param event Move event
+     * @param snapshot Snapshot of the player's arena
+     */
+    public void handleViolation(PlayerMoveEvent event, ArenaSnapshot snapshot) {
+        violations.increment();
+        if (pushBack && isInside(snapshot, event.getFrom())) {
+            event.setCancelled(true);
+            return;
+        }
+
+        World world = snapshot.isSet(ArenaSnapshot.CENTER) ? WorldRegistry.resolve(snapshot.getWorldName(ArenaSnapshot.CENTER)) : null;
+        if (world == null) {
+            // Nowhere better to go, so at least do not let them get further away
+            event.setCancelled(true);
+            return;
+        }
+
+        if (target.getWorld() != world) {
+            target.setWorld(world);
+        }
+        target.set(snapshot.getX(ArenaSnapshot.CENTER), snapshot.getY(ArenaSnapshot.CENTER), snapshot.getZ(ArenaSnapshot.CENTER));
+        target.setYaw(snapshot.getYaw(ArenaSnapshot.CENTER));
+        target.setPitch(snapshot.getPitch(ArenaSnapshot.CENTER));
+        event.setTo(target);
+    }
+
+    /**
+     * Count a blocked teleport as a violation
+     */
+    public void recordViolation() {
+        violations.increment();
+    }
+}
@@ -0,0 +1,165 @@
+package me.notjoshx.dhoomarenas.managers;
+
+import me.notjoshx.dhoomarenas.DhoomArenas;
+import me.notjoshx.dhoomarenas.models.Arena;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Watches the arenas folder and reloads arena files changed by other tools without a restart.
+ * Changed files are collected until the folder has been quiet for the debounce delay, parsed on the watcher thread,
+ * and handed to the arena manager to apply on the main thread. Files whose size and modification time match
+ * what the plugin last loaded or wrote itself are skipped, so the plugin's own saves never trigger a reload.
+ */
+public class ArenaFileWatcher {
+    private final DhoomArenas plugin;
+    private final ArenaManager arenaManager;
+    private final File arenasFolder;
+    private final long debounceMillis;
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * Create a new file watcher
+     * @param plugin Plugin instance
+     * @param arenaManager Arena manager applying the changes
+     * @param arenasFolder Folder containing the arena files
+     * @param debounceMillis Milliseconds the folder must be quiet before changes are applied
+     */
+    public ArenaFileWatcher(DhoomArenas plugin, ArenaManager arenaManager, File arenasFolder, long debounceMillis) {
+        this.plugin = plugin;
+        this.arenaManager = arenaManager;
+        this.arenasFolder = arenasFolder;
+        this.debounceMillis = Math.max(50L, debounceMillis);
+    }
+
+    /**
+     * Start watching the arenas folder
+     */
+    public void start() {
+        if (thread != null) {
+            return;
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            arenasFolder.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not watch the arenas folder, hot reload is disabled", e);
+            return;
+        }
+
+        thread = new Thread(this::watch, "DhoomArenas-Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop watching the arenas folder
+     */
+    public void shutdown() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+                // Closing anyway
+            }
+            watchService = null;
+        }
+        thread = null;
+    }
+
+    /**
+     * Watcher thread loop
+     */
+    private void watch() {
+        WatchService service = watchService;
+        Set<String> changed = new LinkedHashSet<>();
+        try {
+            while (true) {
+                // Block for the first change, then keep collecting until the folder is quiet
+                WatchKey key = changed.isEmpty() ? service.take() : service.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    process(changed);
+                    changed.clear();
+                    continue;
+                }
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Events were lost, so look at every file
+                        File[] files = arenasFolder.listFiles((dir, name) -> name.endsWith(".yml"));
+                        if (files != null) {
+                            for (File file : files) {
+                                changed.add(file.getName());
+                            }
+                        }
+                        changed.addAll(arenaManager.getArenaNames().stream().map(name -> name + ".yml").toList());
+                        continue;
+                    }
+
+                    String fileName = ((Path) event.context()).getFileName().toString();
+                    if (fileName.endsWith(".yml")) {
+                        changed.add(fileName);
+                    }
+                }
+                if (!key.reset()) {
+                    plugin.getLogger().warning("Arenas folder is no longer accessible, hot reload is disabled");
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Shutting down
+        }
+    }
+
+    /**
+     * Parse the changed files and hand the results to the main thread
+     * @param fileNames Names of the changed files
+     */
+    private void process(Set<String> fileNames) {
+        Map<String, Arena> changes = new HashMap<>();
+        for (String fileName : fileNames) {
+            String name = fileName.substring(0, fileName.length() - ".yml".length());
+            File file = new File(arenasFolder, fileName);
+            Arena current = arenaManager.getArena(name);
+
+            if (!file.isFile()) {
+                if (current != null) {
+                    changes.put(name, null);
+                }
+                continue;
+            }
+
+            if (current != null && current.getFileLength() == file.length() && current.getFileModified() == file.lastModified()) {
+                // Written by the plugin itself, or touched without changes
+                continue;
+            }
+
+            try {
+                changes.put(name, new Arena(name, file));
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.SEVERE, "Could not reload arena " + name + ", keeping the loaded version", e);
+            }
+        }
+
+        if (!changes.isEmpty()) {
+            plugin.getServer().getScheduler().runTask(plugin, () -> arenaManager.applyFileChanges(changes));
+        }
+    }
+}
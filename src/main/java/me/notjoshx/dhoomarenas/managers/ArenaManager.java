@@ -1,19 +1,86 @@
 package me.notjoshx.dhoomarenas.managers;
 
 import me.notjoshx.dhoomarenas.DhoomArenas;
+import me.notjoshx.dhoomarenas.countdown.ArenaCountdownManager;
+import me.notjoshx.dhoomarenas.index.ArenaAvailabilityIndex;
+import me.notjoshx.dhoomarenas.index.ArenaNameIndex;
+import me.notjoshx.dhoomarenas.index.ArenaSpatialIndex;
+import me.notjoshx.dhoomarenas.membership.ArenaMembership;
+import me.notjoshx.dhoomarenas.membership.JoinResult;
+import me.notjoshx.dhoomarenas.metrics.LatencyHistogram;
+import me.notjoshx.dhoomarenas.metrics.PluginMetrics;
 import me.notjoshx.dhoomarenas.models.Arena;
+import me.notjoshx.dhoomarenas.models.ArenaSnapshot;
+import me.notjoshx.dhoomarenas.models.ArenaTemplate;
+import me.notjoshx.dhoomarenas.models.ArenaValidation;
+import me.notjoshx.dhoomarenas.reset.ArenaResetManager;
+import me.notjoshx.dhoomarenas.storage.ArenaJournal;
+import me.notjoshx.dhoomarenas.storage.ArenaMutation;
+import me.notjoshx.dhoomarenas.storage.ArenaSaveQueue;
+import me.notjoshx.dhoomarenas.storage.ArenaSnapshotCache;
+import me.notjoshx.dhoomarenas.storage.ArenaStorage;
+import me.notjoshx.dhoomarenas.storage.SerializedArena;
+import me.notjoshx.dhoomarenas.storage.SqliteArenaStorage;
+import me.notjoshx.dhoomarenas.storage.YamlArenaStorage;
+import me.notjoshx.dhoomarenas.teleport.BatchTeleporter;
+import me.notjoshx.dhoomarenas.teleport.SpawnStrategy;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
+import org.bukkit.util.BoundingBox;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
 
 public class ArenaManager {
     private final DhoomArenas plugin;
     private final Map<String, Arena> arenas;
-    private final File arenasFolder;
+    private final Map<String, Arena> arenasView;
+    private final Set<String> arenaNames;
+    private final ArenaStorage storage;
+    private final YamlArenaStorage fileStorage;
+    private final ArenaJournal journal;
+    private final ArenaSaveQueue saveQueue;
+    private final ArenaSnapshotCache snapshotCache;
+    private final ArenaSpatialIndex spatialIndex;
+    private final ArenaNameIndex nameIndex;
+    private final BatchTeleporter batchTeleporter;
+    private final ArenaWarmupManager warmupManager;
+    private final ArenaResetManager resetManager;
+    private final ArenaMembership membership;
+    private final ArenaAvailabilityIndex availability;
+    private final Map<String, Arena> readyArenas;
+    private final Set<String> readyArenaNames;
+    private final ArenaBoundaryManager boundaryManager;
+    private final ArenaCountdownManager countdownManager;
+    private final ArenaTemplateManager templateManager;
+    private final ArenaFileWatcher fileWatcher;
+    private final CompletableFuture<Void> loadFuture;
+    private final LatencyHistogram loadTimer;
+    private final LatencyHistogram parseTimer;
+    private final LatencyHistogram teleportTimer;
+    private final LatencyHistogram teleportAsyncTimer;
+    private final LongAdder snapshotHits;
 
     /**
      * Create a new arena manager
@@ -21,33 +88,357 @@ public class ArenaManager {
      */
     public ArenaManager(DhoomArenas plugin) {
         this.plugin = plugin;
-        this.arenas = new HashMap<>();
-        this.arenasFolder = new File(plugin.getDataFolder(), "arenas");
+        this.arenas = new ConcurrentHashMap<>();
+        this.arenasView = Collections.unmodifiableMap(arenas);
+        this.arenaNames = Collections.unmodifiableSet(arenas.keySet());
+        this.storage = openStorage(plugin.getConfig().getString("storage.type", "yaml"));
+        // The startup snapshot and hot reload work on arena files, so they only apply to the file backend
+        this.fileStorage = storage instanceof YamlArenaStorage ? (YamlArenaStorage) storage : null;
+        this.journal = plugin.getConfig().getBoolean("persistence.journal.enabled", false) ? openJournal() : null;
+        // With a journal every change is already on disk, so arena storage is only rewritten when compacting
+        long flushIntervalTicks = journal != null
+                ? Math.max(1L, plugin.getConfig().getLong("persistence.journal.compact-interval-seconds", 300L)) * 20L
+                : plugin.getConfig().getLong("persistence.flush-interval-ticks", 20L);
+        this.saveQueue = new ArenaSaveQueue(plugin, storage, journal, flushIntervalTicks);
+        this.snapshotCache = new ArenaSnapshotCache(plugin, new File(plugin.getDataFolder(), "arenas.cache"));
+        this.spatialIndex = new ArenaSpatialIndex();
+        this.nameIndex = new ArenaNameIndex();
+        this.batchTeleporter = new BatchTeleporter(plugin, plugin.getConfig().getDouble("teleport.batch-budget-ms", 2.0D));
+        this.warmupManager = new ArenaWarmupManager(plugin);
+        this.resetManager = new ArenaResetManager(plugin, warmupManager, plugin.getConfig().getDouble("reset.budget-ms", 5.0D),
+                plugin.getConfig().getDouble("reset.delta-threshold", 0.25D),
+                plugin.getConfig().getLong("reset.max-volume", 16_777_216L));
+        this.membership = new ArenaMembership();
+        this.availability = new ArenaAvailabilityIndex(membership);
+        this.readyArenas = new ConcurrentHashMap<>();
+        this.readyArenaNames = Collections.unmodifiableSet(readyArenas.keySet());
+        this.countdownManager = new ArenaCountdownManager(plugin, membership, warmupManager, plugin.getConfig().getInt("countdown.min-players", 2),
+                plugin.getConfig().getBoolean("countdown.announce", true), this::refreshAvailability);
+        this.boundaryManager = new ArenaBoundaryManager(plugin, membership, countdownManager,
+                !"center".equalsIgnoreCase(plugin.getConfig().getString("boundary.action", "push-back")));
+        this.templateManager = new ArenaTemplateManager(plugin, this, resetManager);
+        this.loadFuture = new CompletableFuture<>();
+        this.fileWatcher = plugin.getConfig().getBoolean("hot-reload.enabled", false) && fileStorage != null
+                ? new ArenaFileWatcher(plugin, this, fileStorage.getFolder(), plugin.getConfig().getLong("hot-reload.debounce-ms", 500L))
+                : null;
+
+        PluginMetrics metrics = plugin.getMetrics();
+        this.loadTimer = metrics.timer("arena_load", "Time taken to load all arenas at startup");
+        this.parseTimer = metrics.timer("arena_parse", "Time taken to parse one arena file");
+        this.teleportTimer = metrics.timer("teleport", "Time spent on the main thread teleporting a player to an arena");
+        this.teleportAsyncTimer = metrics.timer("teleport_async", "Time from requesting an async arena teleport until it completes");
+        this.snapshotHits = metrics.counter("arena_snapshot_hits");
+        metrics.gauge("arenas_available", "Ready arenas with free slots that matchmaking can pick", availability::size);
 
         // Load all arenas
         loadArenas();
+        if (journal != null) {
+            loadFuture.thenRun(this::replayJournal);
+        }
+        saveQueue.start();
+        countdownManager.start();
+        loadFuture.thenRun(() -> templateManager.load(plugin.getConfig().getConfigurationSection("templates")));
+        if (fileWatcher != null) {
+            loadFuture.thenRun(fileWatcher::start);
+        }
+    }
+
+    /**
+     * Write all pending changes and stop background saving
+     */
+    public void shutdown() {
+        if (fileWatcher != null) {
+            fileWatcher.shutdown();
+        }
+        countdownManager.shutdown();
+        templateManager.shutdown();
+        resetManager.shutdown();
+        warmupManager.releaseAll();
+        saveQueue.shutdown();
+        if (journal != null) {
+            journal.close();
+        }
+        if (isSnapshotEnabled() && isLoaded()) {
+            snapshotCache.write(snapshotCache.encode(arenas.values()));
+        }
+        storage.close();
+    }
+
+    /**
+     * Create a storage backend by type
+     * @param type Backend type, "yaml" or "sqlite"
+     * @return Storage backend, not opened yet
+     * @throws IllegalArgumentException If the type is unknown
+     */
+    private ArenaStorage createStorage(String type) {
+        switch (type.toLowerCase(Locale.ROOT)) {
+            case "yaml":
+                return new YamlArenaStorage(new File(plugin.getDataFolder(), "arenas"));
+            case "sqlite":
+                return new SqliteArenaStorage(new File(plugin.getDataFolder(), plugin.getConfig().getString("storage.sqlite-file", "arenas.db")));
+            default:
+                throw new IllegalArgumentException("Unknown storage type " + type);
+        }
+    }
+
+    /**
+     * Create and open the configured storage backend
+     * @param type Backend type
+     * @return Open storage backend
+     * @throws IllegalStateException If the backend could not be opened
+     */
+    private ArenaStorage openStorage(String type) {
+        ArenaStorage storage = createStorage(type);
+        try {
+            storage.open();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open " + storage.getType() + " arena storage", e);
+        }
+        plugin.getLogger().info("Using " + storage.getType() + " arena storage");
+        return storage;
+    }
+
+    /**
+     * Create and open the arena journal
+     * @return Open journal
+     * @throws IllegalStateException If the journal could not be opened
+     */
+    private ArenaJournal openJournal() {
+        ArenaJournal journal = new ArenaJournal(plugin, new File(plugin.getDataFolder(), "journal"),
+                plugin.getConfig().getLong("persistence.journal.group-commit-ms", 10L));
+        try {
+            journal.open();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open arena journal", e);
+        }
+        return journal;
+    }
+
+    /**
+     * Apply the changes journaled but not yet saved before the last shutdown, then save them. Runs on the main thread.
+     */
+    private void replayJournal() {
+        long start = System.nanoTime();
+        int replayed = journal.replay(this::applyMutation);
+        if (replayed > 0) {
+            plugin.getLogger().info("Replayed " + replayed + " journaled arena changes in " + (System.nanoTime() - start) / 1_000_000L + "ms");
+        }
+        // Writes the replayed arenas and compacts the old segments
+        saveQueue.flush();
+    }
+
+    /**
+     * Apply a journaled change
+     * @param mutation Replayed change
+     */
+    private void applyMutation(ArenaMutation mutation) {
+        String name = mutation.getArenaName();
+        if (mutation.isCreate()) {
+            if (!arenas.containsKey(name)) {
+                createArena(name);
+            }
+            return;
+        }
+        if (mutation.isDelete()) {
+            deleteArena(name);
+            return;
+        }
+
+        Arena arena = arenas.get(name);
+        if (arena == null) {
+            return;
+        }
+
+        ArenaSnapshot before = arena.getSnapshot();
+        arena.applyMutation(mutation);
+        if (before.boundsDiffer(arena.getSnapshot())) {
+            spatialIndex.update(arena);
+        }
+        refreshAvailability(arena);
     }
 
     /**
-     * Load all arenas from config files
+     * Load all arenas from the storage backend
      */
     private void loadArenas() {
-        if (!arenasFolder.exists()) {
-            arenasFolder.mkdir();
+        List<String> names;
+        try {
+            names = storage.listArenas();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not list arenas", e);
+            names = Collections.emptyList();
+        }
+        if (names.isEmpty()) {
+            loadFuture.complete(null);
             return;
         }
 
-        File[] files = arenasFolder.listFiles((dir, name) -> name.endsWith(".yml"));
-        if (files == null) {
+        long start = System.nanoTime();
+        List<String> toParse = restoreFromSnapshot(names);
+        if (toParse.isEmpty()) {
+            finishLoading(start, false);
             return;
         }
 
-        for (File file : files) {
-            String arenaName = file.getName().replace(".yml", "");
-            Arena arena = new Arena(arenaName, file);
-            arenas.put(arenaName, arena);
-            plugin.getLogger().info("Loaded arena: " + arenaName);
+        if (plugin.getConfig().getBoolean("loading.parallel", true) && toParse.size() > 1) {
+            loadArenasParallel(toParse, start);
+            return;
         }
+
+        for (String name : toParse) {
+            Arena arena = loadArena(name);
+            if (arena != null) {
+                plugin.getLogger().info("Loaded arena: " + arena.getName());
+            }
+        }
+        finishLoading(start, true);
+    }
+
+    /**
+     * Restore every arena whose file is unchanged since the last startup snapshot
+     * @param names Arena names
+     * @return Arenas that still need to be parsed
+     */
+    private List<String> restoreFromSnapshot(List<String> names) {
+        List<String> toParse = new ArrayList<>();
+        Map<String, ArenaSnapshotCache.CachedArena> cached = isSnapshotEnabled() ? snapshotCache.load() : Map.of();
+        if (cached.isEmpty()) {
+            toParse.addAll(names);
+            return toParse;
+        }
+
+        for (String name : names) {
+            File file = fileStorage.getFile(name);
+            ArenaSnapshotCache.CachedArena entry = cached.get(name);
+            Arena arena = entry != null && entry.matches(file) ? entry.toArena(file) : null;
+            if (arena == null) {
+                toParse.add(name);
+                continue;
+            }
+
+            arena.setSaveQueue(saveQueue);
+            publish(arena);
+            snapshotHits.increment();
+        }
+
+        plugin.getLogger().info("Restored " + (names.size() - toParse.size()) + " arenas from snapshot, "
+                + toParse.size() + " changed arena files to parse");
+        return toParse;
+    }
+
+    /**
+     * Log the load time, refresh the snapshot and complete the load future on the main thread
+     * @param start Load start time in nanoseconds
+     * @param parsed True if any arena file was parsed
+     */
+    private void finishLoading(long start, boolean parsed) {
+        loadTimer.recordSince(start);
+        plugin.getLogger().info("Loaded " + arenas.size() + " arenas in " + (System.nanoTime() - start) / 1_000_000L + "ms");
+        if (parsed && isSnapshotEnabled()) {
+            byte[] snapshot = snapshotCache.encode(arenas.values());
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> snapshotCache.write(snapshot));
+        }
+        loadFuture.complete(null);
+    }
+
+    /**
+     * Check if the startup snapshot is enabled
+     * @return True if enabled
+     */
+    private boolean isSnapshotEnabled() {
+        return fileStorage != null && plugin.getConfig().getBoolean("loading.snapshot", true);
+    }
+
+    /**
+     * Load arenas on a worker pool, publishing each arena as soon as it is loaded
+     * @param names Arena names
+     * @param start Load start time in nanoseconds
+     */
+    private void loadArenasParallel(List<String> names, long start) {
+        int threads = plugin.getConfig().getInt("loading.threads", 0);
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        threads = Math.min(threads, names.size());
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "DhoomArenas-Loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        int total = names.size();
+        int reportEvery = Math.max(1, total / 10);
+        AtomicInteger loaded = new AtomicInteger();
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[total];
+
+        for (int i = 0; i < total; i++) {
+            String name = names.get(i);
+            tasks[i] = CompletableFuture.runAsync(() -> {
+                loadArena(name);
+                int done = loaded.incrementAndGet();
+                if (done % reportEvery == 0 && done < total) {
+                    plugin.getLogger().info("Loading arenas... " + done + "/" + total);
+                }
+            }, pool);
+        }
+        pool.shutdown();
+
+        plugin.getLogger().info("Loading " + total + " arenas on " + threads + " threads...");
+        // Finish on the main thread so callers can touch the world straight away
+        CompletableFuture.allOf(tasks).whenComplete((result, throwable) ->
+                plugin.getServer().getScheduler().runTask(plugin, () -> finishLoading(start, true)));
+    }
+
+    /**
+     * Load a single arena from the storage backend and publish it to the registry
+     * @param arenaName Arena name
+     * @return Loaded arena, or null if it could not be loaded
+     */
+    private Arena loadArena(String arenaName) {
+        long start = System.nanoTime();
+        try {
+            Arena arena = storage.load(arenaName);
+            if (arena == null) {
+                return null;
+            }
+            arena.setSaveQueue(saveQueue);
+            publish(arena);
+            parseTimer.recordSince(start);
+            return arena;
+        } catch (IOException | RuntimeException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not load arena " + arenaName, e);
+            return null;
+        }
+    }
+
+    /**
+     * Add a loaded arena to the registry, name index, spatial index and availability index
+     * @param arena Loaded arena
+     */
+    private void publish(Arena arena) {
+        if (arenas.putIfAbsent(arena.getName(), arena) == null) {
+            nameIndex.add(arena.getName());
+            spatialIndex.update(arena);
+            refreshAvailability(arena);
+        }
+    }
+
+    /**
+     * Get a future that completes on the main thread once all arenas have been loaded
+     * @return Load future
+     */
+    public CompletableFuture<Void> getLoadFuture() {
+        return loadFuture;
+    }
+
+    /**
+     * Check if all arenas have been loaded
+     * @return True if loading has finished
+     */
+    public boolean isLoaded() {
+        return loadFuture.isDone();
     }
 
     /**
@@ -60,63 +451,613 @@ public class ArenaManager {
             return false;
         }
 
-        File arenaFile = new File(arenasFolder, name + ".yml");
-        if (!arenaFile.exists()) {
-            try {
-                arenaFile.createNewFile();
-            } catch (IOException e) {
-                e.printStackTrace();
-                return false;
-            }
+        Arena arena;
+        try {
+            arena = storage.create(name);
+        } catch (IOException | RuntimeException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not create arena " + name, e);
+            return false;
+        }
+
+        arena.setSaveQueue(saveQueue);
+        if (arenas.putIfAbsent(name, arena) != null) {
+            return false;
         }
 
-        Arena arena = new Arena(name, arenaFile);
-        arenas.put(name, arena);
+        nameIndex.add(name);
+        saveQueue.markDirty(arena, ArenaMutation.create(name));
         return true;
     }
 
     /**
-     * Delete an arena
+     * Delete an arena. It is unloaded right away and removed from storage on the writer thread.
      * @param name Arena name
-     * @return Success status
+     * @return Future completed on the main thread with true if the arena was deleted from storage,
+     *         or false if it does not exist or could not be deleted
      */
-    public boolean deleteArena(String name) {
-        if (!arenas.containsKey(name)) {
-            return false;
+    public CompletableFuture<Boolean> deleteArena(String name) {
+        Arena arena = arenas.get(name);
+        if (arena == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        CompletableFuture<Boolean> stored = saveQueue.delete(arena);
+        unregister(arena);
+
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        stored.thenAccept(deleted -> plugin.getServer().getScheduler().runTask(plugin, () -> future.complete(deleted)));
+        return future;
+    }
+
+    /**
+     * Remove an arena or template instance from the registry and every index, and stop anything still running for it
+     * @param arena Arena to remove
+     */
+    void unregister(Arena arena) {
+        if (arenas.remove(arena.getName(), arena)) {
+            nameIndex.remove(arena.getName());
         }
+        spatialIndex.remove(arena);
+        resetManager.delete(arena);
+        warmupManager.discard(arena);
+        clearPlayers(arena);
+    }
+
+    /**
+     * Add a template instance to the spatial index so positions inside it resolve to it
+     * @param instance Template instance
+     */
+    void indexInstance(Arena instance) {
+        spatialIndex.update(instance);
+    }
+
+    /**
+     * Remove every player from an arena and drop its countdown, without calling any event
+     * @param arena Arena
+     */
+    void clearPlayers(Arena arena) {
+        membership.discard(arena);
+        countdownManager.discard(arena);
+        refreshAvailability(arena);
+    }
+
+    /**
+     * Re-check an arena's readiness and re-rank it for matchmaking after its players, setup or started state changed.
+     * Deleted arenas and template instances that are not handed out are removed. Safe to call from any thread.
+     * @param arena Arena
+     */
+    void refreshAvailability(Arena arena) {
+        boolean registered = templateManager.isInstance(arena) ? templateManager.isInUse(arena) : arenas.get(arena.getName()) == arena;
+        if (registered && arena.isReady()) {
+            readyArenas.put(arena.getName(), arena);
+        } else {
+            readyArenas.remove(arena.getName(), arena);
+        }
+
+        if (!registered) {
+            availability.remove(arena);
+            return;
+        }
+        availability.update(arena, !countdownManager.isStarted(arena));
+    }
+
+    /**
+     * Re-check the readiness of every arena and handed out instance, e.g. after a world loaded or unloaded
+     */
+    public void refreshReadiness() {
+        for (Arena arena : arenas.values()) {
+            refreshAvailability(arena);
+        }
+        for (ArenaTemplate template : templateManager.getTemplates()) {
+            for (Arena instance : templateManager.getInstancesInUse(template.getName())) {
+                refreshAvailability(instance);
+            }
+        }
+    }
+
+    /**
+     * Apply arena files changed outside the plugin, as detected by the file watcher. Must be called from the main thread.
+     * @param changes Freshly parsed arenas by name, with a null value for deleted files
+     */
+    void applyFileChanges(Map<String, Arena> changes) {
+        for (Map.Entry<String, Arena> change : changes.entrySet()) {
+            String name = change.getKey();
+            Arena reloaded = change.getValue();
+            Arena current = arenas.get(name);
+
+            if (reloaded == null) {
+                if (current != null && !current.getConfigFile().exists()) {
+                    // Drop pending writes so the file is not recreated
+                    saveQueue.delete(current);
+                    unregister(current);
+                    plugin.getLogger().info("Unloaded arena " + name + ", its file was deleted");
+                }
+                continue;
+            }
+
+            File file = reloaded.getConfigFile();
+            if (file.length() != reloaded.getFileLength() || file.lastModified() != reloaded.getFileModified()) {
+                // Changed again after it was parsed; the watcher picks up the newer version
+                continue;
+            }
+
+            if (current == null) {
+                reloaded.setSaveQueue(saveQueue);
+                publish(reloaded);
+                plugin.getLogger().info("Loaded new arena " + name + " from disk");
+                continue;
+            }
 
-        File arenaFile = new File(arenasFolder, name + ".yml");
-        boolean deleted = arenaFile.delete();
-        if (deleted) {
-            arenas.remove(name);
+            ArenaSnapshot before = current.getSnapshot();
+            current.reloadFrom(reloaded);
+            ArenaSnapshot after = current.getSnapshot();
+            if (before.equals(after)) {
+                continue;
+            }
+            if (before.boundsDiffer(after)) {
+                spatialIndex.update(current);
+            }
+            refreshAvailability(current);
+            plugin.getLogger().info("Reloaded arena " + name + " from disk");
         }
-        return deleted;
     }
 
     /**
-     * Get an arena by name
+     * Get an arena or template instance by name
      * @param name Arena name
      * @return Arena instance, or null if not found
      */
     public Arena getArena(String name) {
-        return arenas.get(name);
+        Arena arena = arenas.get(name);
+        return arena != null ? arena : templateManager.getInstance(name);
     }
 
     /**
-     * Check if an arena exists
+     * Check if an arena or template instance exists
      * @param name Arena name
      * @return True if exists
      */
     public boolean arenaExists(String name) {
-        return arenas.containsKey(name);
+        return arenas.containsKey(name) || templateManager.getInstance(name) != null;
+    }
+
+    /**
+     * Get a future that completes once all pending changes of an arena are on disk
+     * @param name Arena name
+     * @return Save future, or null if the arena does not exist
+     */
+    public CompletableFuture<Void> saveArena(String name) {
+        Arena arena = getArena(name);
+        if (arena == null) {
+            return null;
+        }
+
+        return saveQueue.getPendingSave(arena);
+    }
+
+    /**
+     * Get the type of the storage backend in use
+     * @return Backend type, e.g. "yaml"
+     */
+    public String getStorageType() {
+        return storage.getType();
+    }
+
+    /**
+     * Copy every arena into another storage backend in one batch, e.g. before switching {@code storage.type}.
+     * Must be called from the main thread; the future completes on the main thread.
+     * @param type Target backend type
+     * @return Future completing with the number of arenas copied
+     * @throws IllegalArgumentException If the type is unknown or is the backend already in use
+     * @throws IllegalStateException If arenas are still loading
+     */
+    public CompletableFuture<Integer> migrateStorage(String type) {
+        ArenaStorage target = createStorage(type);
+        if (target.getType().equals(storage.getType())) {
+            throw new IllegalArgumentException("Arenas are already stored as " + target.getType());
+        }
+        if (!isLoaded()) {
+            throw new IllegalStateException("Arenas are still loading");
+        }
+
+        // Serialize on the main thread, like the save queue, so every arena is copied in a consistent state
+        List<SerializedArena> batch = new ArrayList<>(arenas.size());
+        for (Arena arena : arenas.values()) {
+            batch.add(SerializedArena.of(arena));
+        }
+
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                target.open();
+                target.write(batch);
+                plugin.getServer().getScheduler().runTask(plugin, () -> future.complete(batch.size()));
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Could not migrate arenas to " + target.getType() + " storage", e);
+                plugin.getServer().getScheduler().runTask(plugin, () -> future.completeExceptionally(e));
+            } finally {
+                target.close();
+            }
+        });
+        return future;
     }
 
     /**
      * Get all arenas
-     * @return Map of arenas
+     * @return Unmodifiable live view of all arenas, safe to read from any thread
      */
     public Map<String, Arena> getArenas() {
-        return arenas;
+        return arenasView;
+    }
+
+    /**
+     * Get all arena names
+     * @return Unmodifiable live view of all arena names, safe to read from any thread
+     */
+    public Set<String> getArenaNames() {
+        return arenaNames;
+    }
+
+    /**
+     * Find arena names starting with a prefix, ignoring case. Safe to call from any thread.
+     * @param prefix Prefix to match
+     * @param limit Maximum number of names to return
+     * @return Matching names in case-insensitive order
+     */
+    public List<String> completeArenaNames(String prefix, int limit) {
+        return nameIndex.complete(prefix, limit);
+    }
+
+    /**
+     * Get the arena containing a location
+     * @param location Location
+     * @return Arena, or null if the location is not inside any arena
+     */
+    public Arena getArenaAt(Location location) {
+        return spatialIndex.getArenaAt(location);
+    }
+
+    /**
+     * Get the arena containing a block position
+     * @param world World name
+     * @param x Block X
+     * @param y Block Y
+     * @param z Block Z
+     * @return Arena, or null if the position is not inside any arena
+     */
+    public Arena getArenaAt(String world, int x, int y, int z) {
+        return spatialIndex.getArenaAt(world, x, y, z);
+    }
+
+    /**
+     * Get all arenas whose bounds intersect a box
+     * @param world World of the box
+     * @param box Box in block coordinates
+     * @return Intersecting arenas
+     */
+    public List<Arena> getArenasIntersecting(World world, BoundingBox box) {
+        return spatialIndex.getArenasIntersecting(world, box);
+    }
+
+    /**
+     * Get all arenas and template instances whose bounds intersect the region of a snapshot
+     * @param snapshot Snapshot with its region set
+     * @return Intersecting arenas
+     */
+    List<Arena> getArenasIntersecting(ArenaSnapshot snapshot) {
+        return spatialIndex.getArenasIntersecting(snapshot.getBoundsWorld(), snapshot.getMinX(), snapshot.getMinY(),
+                snapshot.getMinZ(), snapshot.getMaxX(), snapshot.getMaxY(), snapshot.getMaxZ());
+    }
+
+    /**
+     * Load every chunk covering an arena's region and keep it loaded until the arena is released.
+     * Every call must be matched by a call to {@link #releaseArena(String)}. Must be called from the main thread.
+     * @param name Arena name
+     * @return Future completing once all chunks are loaded, or null if the arena does not exist
+     */
+    public CompletableFuture<Void> warmArena(String name) {
+        Arena arena = getArena(name);
+        if (arena == null) {
+            return null;
+        }
+
+        return warmupManager.warm(arena);
+    }
+
+    /**
+     * Release an arena warmed with {@link #warmArena(String)}. Its chunks may unload once no other user holds them.
+     * Must be called from the main thread.
+     * @param name Arena name
+     */
+    public void releaseArena(String name) {
+        Arena arena = getArena(name);
+        if (arena != null) {
+            warmupManager.release(arena);
+        }
+    }
+
+    /**
+     * Add a player to an arena if it has a free slot and the player is not in another arena.
+     * Safe to call from any thread.
+     * @param playerId Player UUID
+     * @param name Arena name
+     * @return Outcome
+     */
+    public JoinResult joinArena(UUID playerId, String name) {
+        Arena arena = getArena(name);
+        if (arena == null) {
+            return JoinResult.NO_ARENA;
+        }
+
+        JoinResult result = membership.join(playerId, arena);
+        if (result == JoinResult.JOINED && getArena(name) != arena) {
+            // Deleted while joining
+            membership.leave(playerId);
+            return JoinResult.NO_ARENA;
+        }
+        if (result == JoinResult.JOINED) {
+            refreshAvailability(arena);
+            countdownManager.update(arena);
+        }
+        return result;
+    }
+
+    /**
+     * Remove a player from their arena. Safe to call from any thread.
+     * @param playerId Player UUID
+     * @return Arena the player left, or null if they were not in one
+     */
+    public Arena leaveArena(UUID playerId) {
+        Arena arena = membership.leave(playerId);
+        if (arena != null) {
+            refreshAvailability(arena);
+            countdownManager.update(arena);
+        }
+        return arena;
+    }
+
+    /**
+     * Find the ready arena with the most free slots, and the fewest players among those, that fits a party.
+     * Safe to call from any thread; join the returned arena right away, as it may fill up in the meantime.
+     * @param partySize Players that need a slot
+     * @param filter Extra condition on the arena's snapshot, or null
+     * @return Arena, or null if no ready arena has room
+     */
+    public Arena findAvailableArena(int partySize, Predicate<ArenaSnapshot> filter) {
+        return availability.find(Math.max(1, partySize), filter);
+    }
+
+    /**
+     * Check if an arena can be played, using its cached validation result
+     * @param name Arena name
+     * @return True if the arena exists and is ready
+     */
+    public boolean isArenaReady(String name) {
+        Arena arena = getArena(name);
+        return arena != null && arena.isReady();
+    }
+
+    /**
+     * Get the names of every arena and handed out instance that can be played
+     * @return Unmodifiable live view, safe to read from any thread
+     */
+    public Set<String> getReadyArenaNames() {
+        return readyArenaNames;
+    }
+
+    /**
+     * Validate every arena on a worker pool. Results are handed to the listener in batches as workers finish them,
+     * and refresh each arena's cached result and readiness. Must be called from the main thread.
+     * @param listener Called on the main thread with the result of each arena
+     * @return Future completing on the main thread, after every result was handed out, with the number of arenas checked
+     */
+    public CompletableFuture<Integer> validateArenas(Consumer<ArenaValidation> listener) {
+        List<Arena> toCheck = new ArrayList<>(arenas.values());
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        if (toCheck.isEmpty()) {
+            future.complete(0);
+            return future;
+        }
+
+        int threads = Math.min(Runtime.getRuntime().availableProcessors(), toCheck.size());
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "DhoomArenas-Validator-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Several small batches per thread keep workers busy and the report flowing without a main-thread task per arena
+        int batchSize = Math.max(1, toCheck.size() / (threads * 4));
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < toCheck.size(); from += batchSize) {
+            List<Arena> batch = toCheck.subList(from, Math.min(from + batchSize, toCheck.size()));
+            batches.add(CompletableFuture.runAsync(() -> {
+                List<ArenaValidation> results = new ArrayList<>(batch.size());
+                for (Arena arena : batch) {
+                    results.add(arena.getValidation());
+                    refreshAvailability(arena);
+                }
+                plugin.getServer().getScheduler().runTask(plugin, () -> results.forEach(listener));
+            }, pool));
+        }
+        pool.shutdown();
+
+        CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0])).whenComplete((result, throwable) ->
+                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    if (throwable != null) {
+                        future.completeExceptionally(throwable);
+                    } else {
+                        future.complete(toCheck.size());
+                    }
+                }));
+        return future;
+    }
+
+    /**
+     * Get the arena a player is in. Safe to call from any thread.
+     * @param playerId Player UUID
+     * @return Arena, or null if the player is not in one
+     */
+    public Arena getPlayerArena(UUID playerId) {
+        return membership.getArena(playerId);
+    }
+
+    /**
+     * Take a ready instance of a template out of its pool. Must be called from the main thread.
+     * @param templateName Template name
+     * @return Instance, or null if the template does not exist or no instance is ready
+     */
+    public Arena acquireInstance(String templateName) {
+        return templateManager.acquire(templateName);
+    }
+
+    /**
+     * Take a ready instance of a template, building one if none is ready. Must be called from the main thread.
+     * @param templateName Template name
+     * @return Future completing on the main thread with the instance
+     */
+    public CompletableFuture<Arena> acquireInstanceAsync(String templateName) {
+        return templateManager.acquireAsync(templateName);
+    }
+
+    /**
+     * Give a template instance back so it is reset and returned to its pool. Must be called from the main thread.
+     * @param name Instance name
+     * @return Future completing once the instance is ready again, or null if there is no such instance
+     */
+    public CompletableFuture<Void> releaseInstance(String name) {
+        Arena instance = templateManager.getInstance(name);
+        return instance != null ? templateManager.release(instance) : null;
+    }
+
+    /**
+     * Get the template manager
+     * @return Template manager
+     */
+    public ArenaTemplateManager getTemplateManager() {
+        return templateManager;
+    }
+
+    /**
+     * Get the lobby countdown manager
+     * @return Countdown manager
+     */
+    public ArenaCountdownManager getCountdownManager() {
+        return countdownManager;
+    }
+
+    /**
+     * Get the player membership registry
+     * @return Membership registry
+     */
+    public ArenaMembership getMembership() {
+        return membership;
+    }
+
+    /**
+     * Capture the current blocks of an arena's region so it can be reset later.
+     * Must be called from the main thread; the future completes on the main thread.
+     * @param name Arena name
+     * @return Future completing once the snapshot has been taken and stored, or null if the arena does not exist
+     */
+    public CompletableFuture<Void> captureArena(String name) {
+        Arena arena = getArena(name);
+        if (arena == null) {
+            return null;
+        }
+
+        return resetManager.capture(arena);
+    }
+
+    /**
+     * Restore an arena's region from its last capture, spread over ticks under the reset time budget.
+     * Must be called from the main thread; the future completes on the main thread.
+     * @param name Arena name
+     * @param progress Progress callback, called once per tick with a value from 0 to 1, or null
+     * @return Future completing once the region has been restored, or null if the arena does not exist
+     */
+    public CompletableFuture<Void> resetArena(String name, DoubleConsumer progress) {
+        Arena arena = getArena(name);
+        if (arena == null) {
+            return null;
+        }
+
+        return resetManager.reset(arena, progress);
+    }
+
+    /**
+     * Start recording block changes inside an arena so {@link #resetArenaChanges(String, DoubleConsumer)} can undo them.
+     * Must be called from the main thread.
+     * @param name Arena name
+     * @return Success status, false if the arena does not exist or has no region set
+     */
+    public boolean startTrackingChanges(String name) {
+        Arena arena = getArena(name);
+        return arena != null && resetManager.startTracking(arena);
+    }
+
+    /**
+     * Stop recording block changes inside an arena. Must be called from the main thread.
+     * @param name Arena name
+     */
+    public void stopTrackingChanges(String name) {
+        Arena arena = getArena(name);
+        if (arena != null) {
+            resetManager.stopTracking(arena);
+        }
+    }
+
+    /**
+     * Get the number of blocks changed inside an arena since tracking started or the last reset.
+     * Must be called from the main thread.
+     * @param name Arena name
+     * @return Dirty block count, 0 if the arena does not exist or is not tracked
+     */
+    public int getDirtyBlockCount(String name) {
+        Arena arena = getArena(name);
+        return arena != null ? resetManager.getDirtyBlockCount(arena) : 0;
+    }
+
+    /**
+     * Undo the block changes recorded inside an arena, spread over ticks under the reset time budget.
+     * Uses a full region reset instead when a large part of the arena changed.
+     * Must be called from the main thread; the future completes on the main thread.
+     * @param name Arena name
+     * @param progress Progress callback, called once per tick with a value from 0 to 1, or null
+     * @return Future completing once the changes have been undone, or null if the arena does not exist
+     */
+    public CompletableFuture<Void> resetArenaChanges(String name, DoubleConsumer progress) {
+        Arena arena = getArena(name);
+        if (arena == null) {
+            return null;
+        }
+
+        return resetManager.resetChanges(arena, progress);
+    }
+
+    /**
+     * Get the region reset manager
+     * @return Reset manager
+     */
+    public ArenaResetManager getResetManager() {
+        return resetManager;
+    }
+
+    /**
+     * Get the chunk warm-up manager
+     * @return Warm-up manager
+     */
+    public ArenaWarmupManager getWarmupManager() {
+        return warmupManager;
+    }
+
+    /**
+     * Get the boundary manager
+     * @return Boundary manager
+     */
+    public ArenaBoundaryManager getBoundaryManager() {
+        return boundaryManager;
     }
 
     /**
@@ -132,6 +1073,8 @@ public class ArenaManager {
         }
 
         arena.setPos1(location);
+        spatialIndex.update(arena);
+        refreshAvailability(arena);
         return true;
     }
 
@@ -148,6 +1091,8 @@ public class ArenaManager {
         }
 
         arena.setPos2(location);
+        spatialIndex.update(arena);
+        refreshAvailability(arena);
         return true;
     }
 
@@ -164,6 +1109,9 @@ public class ArenaManager {
         }
 
         arena.setMaxPlayers(maxPlayers);
+        refreshAvailability(arena);
+        // The countdown threshold is capped at max players
+        countdownManager.update(arena);
         return true;
     }
 
@@ -180,6 +1128,7 @@ public class ArenaManager {
         }
 
         arena.setCenter(location);
+        refreshAvailability(arena);
         return true;
     }
 
@@ -213,6 +1162,7 @@ public class ArenaManager {
         }
 
         arena.setSpawnPoint(number, location);
+        refreshAvailability(arena);
         return true;
     }
 
@@ -224,27 +1174,87 @@ public class ArenaManager {
      * @return Success status
      */
     public boolean teleportToArena(Player player, String name, int spawnPointNumber) {
+        long start = System.nanoTime();
+        Location target = getTeleportTarget(name, spawnPointNumber);
+        if (target == null) {
+            return false;
+        }
+
+        player.teleport(target);
+        teleportTimer.recordSince(start);
+        return true;
+    }
+
+    /**
+     * Teleport a player to an arena location without blocking the tick.
+     * The destination chunk is loaded asynchronously before the teleport.
+     * Must be called from the main thread; the future completes on the main thread.
+     * @param player Player to teleport
+     * @param name Arena name
+     * @param spawnPointNumber Spawn point number, -1 for center
+     * @return Future completing with the success status
+     */
+    public CompletableFuture<Boolean> teleportToArenaAsync(Player player, String name, int spawnPointNumber) {
+        Location target = getTeleportTarget(name, spawnPointNumber);
+        if (target == null || target.getWorld() == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        long start = System.nanoTime();
+        return target.getWorld().getChunkAtAsync(target)
+                .thenCompose(chunk -> player.teleportAsync(target))
+                .whenComplete((success, throwable) -> teleportAsyncTimer.recordSince(start));
+    }
+
+    /**
+     * Teleport a group of players to an arena's spawn points in one batch.
+     * Each player gets its own spawn point while there are enough; after that spawn points are reused in the same order.
+     * All destination chunks are loaded asynchronously first, then the teleports are spread over ticks under a time budget.
+     * Must be called from the main thread; the futures complete on the main thread.
+     * @param players Players to teleport; duplicates are teleported once
+     * @param name Arena name
+     * @param strategy How spawn points are assigned
+     * @return Future for each player, completing with true if the player was teleported
+     */
+    public Map<Player, CompletableFuture<Boolean>> teleportTeamToArena(Collection<? extends Player> players, String name, SpawnStrategy strategy) {
+        // A player listed twice would otherwise take two spawn points and be teleported twice
+        List<Player> team = new ArrayList<>(new LinkedHashSet<>(players));
+        Arena arena = getArena(name);
+        Map<Integer, Location> spawns = arena != null ? arena.getSpawnPoints() : Collections.emptyMap();
+        if (spawns.isEmpty()) {
+            Map<Player, CompletableFuture<Boolean>> results = new LinkedHashMap<>();
+            for (Player player : team) {
+                results.put(player, CompletableFuture.completedFuture(false));
+            }
+            return results;
+        }
+
+        // Copies, since teleport listeners may modify the target and the spawn map is shared
+        List<Location> spawnPoints = new ArrayList<>(spawns.size());
+        for (Location spawn : spawns.values()) {
+            spawnPoints.add(spawn.clone());
+        }
+        return batchTeleporter.teleport(team, strategy.assign(spawnPoints, team.size()));
+    }
+
+    /**
+     * Resolve the location a teleport to an arena should go to
+     * @param name Arena name
+     * @param spawnPointNumber Spawn point number, -1 for center
+     * @return Target location, or null if the arena or location does not exist
+     */
+    private Location getTeleportTarget(String name, int spawnPointNumber) {
         Arena arena = getArena(name);
         if (arena == null) {
-            return false;
+            return null;
         }
 
         if (spawnPointNumber == -1) {
             // Teleport to center
-            if (arena.getCenter() == null) {
-                return false;
-            }
-            player.teleport(arena.getCenter());
-            return true;
-        } else {
-            // Teleport to spawn point
-            Map<Integer, Location> spawnPoints = arena.getSpawnPoints();
-            if (!spawnPoints.containsKey(spawnPointNumber)) {
-                return false;
-            }
-
-            player.teleport(spawnPoints.get(spawnPointNumber));
-            return true;
+            return arena.getCenter();
         }
+
+        // Teleport to spawn point
+        return arena.getSnapshot().getSpawnPoint(spawnPointNumber);
     }
 }
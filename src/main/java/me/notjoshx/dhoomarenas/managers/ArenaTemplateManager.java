@@ -0,0 +1,353 @@
+package me.notjoshx.dhoomarenas.managers;
+
+import me.notjoshx.dhoomarenas.DhoomArenas;
+import me.notjoshx.dhoomarenas.metrics.LatencyHistogram;
+import me.notjoshx.dhoomarenas.models.Arena;
+import me.notjoshx.dhoomarenas.models.ArenaSnapshot;
+import me.notjoshx.dhoomarenas.models.ArenaTemplate;
+import me.notjoshx.dhoomarenas.reset.ArenaResetManager;
+import me.notjoshx.dhoomarenas.scheduler.WorkPriority;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Stamps out in-memory arena instances from {@link ArenaTemplate}s and keeps a pool of them built and reset.
+ * An instance is a regular {@link Arena} without a file: it can be joined, teleported to and reset by name,
+ * but it is not listed with the stored arenas and is never saved.
+ * Instances are built by pasting the source arena's captured region at the instance's offset on the work
+ * scheduler, and are reset from their recorded block changes when released, so handing one out is a queue poll.
+ * The pool grows to the most instances ever in use at once. All methods must be called from the main thread,
+ * except {@link #getInstance(String)} and {@link #isInstance(Arena)}.
+ */
+public class ArenaTemplateManager {
+    private final DhoomArenas plugin;
+    private final ArenaManager arenaManager;
+    private final ArenaResetManager resetManager;
+    private final Map<String, Pool> pools;
+    private final Map<String, Arena> instances;
+    private final Map<Arena, Pool> owners;
+    private final LatencyHistogram buildTimer;
+    private final LongAdder poolMisses;
+
+    /**
+     * Create a new template manager
+     * @param plugin Plugin instance
+     * @param arenaManager Arena manager instances are registered with
+     * @param resetManager Reset manager used to paste and reset instances
+     */
+    public ArenaTemplateManager(DhoomArenas plugin, ArenaManager arenaManager, ArenaResetManager resetManager) {
+        this.plugin = plugin;
+        this.arenaManager = arenaManager;
+        this.resetManager = resetManager;
+        this.pools = new LinkedHashMap<>();
+        this.instances = new ConcurrentHashMap<>();
+        this.owners = new ConcurrentHashMap<>();
+        this.buildTimer = plugin.getMetrics().timer("template_build", "Time from starting to build a template instance until it is ready");
+        this.poolMisses = plugin.getMetrics().counter("template_pool_misses");
+    }
+
+    /**
+     * Read the templates from configuration and start filling their pools
+     * @param section Templates section, keyed by template name, or null for none
+     */
+    public void load(ConfigurationSection section) {
+        if (section == null) {
+            return;
+        }
+
+        for (String name : section.getKeys(false)) {
+            ConfigurationSection values = section.getConfigurationSection(name);
+            String source = values != null ? values.getString("arena") : null;
+            if (source == null) {
+                plugin.getLogger().warning("Template " + name + " has no source arena set");
+                continue;
+            }
+
+            // Instances overwrite whatever is built where they are pasted, so their place must be chosen explicitly
+            String world = values.getString("world");
+            if (world == null || !values.isConfigurationSection("origin")) {
+                plugin.getLogger().warning("Template " + name + " needs a world and an origin to place its instances at");
+                continue;
+            }
+
+            ArenaTemplate template = new ArenaTemplate(name, source, world, values.getInt("origin.x"), values.getInt("origin.y"),
+                    values.getInt("origin.z"), Math.max(1, values.getInt("spacing", 512)), Math.max(0, values.getInt("pool-size", 2)));
+            Arena sourceArena = arenaManager.getArena(source);
+            ArenaSnapshot snapshot = sourceArena != null ? sourceArena.getSnapshot() : null;
+            if (snapshot != null && snapshot.hasBounds() && template.getSpacing() <= snapshot.getMaxX() - snapshot.getMinX()) {
+                plugin.getLogger().warning("Template " + name + " spacing is smaller than arena " + source + ", instances will overlap");
+            }
+
+            Pool pool = new Pool(template);
+            pools.put(name, pool);
+            refill(pool);
+        }
+    }
+
+    /**
+     * Drop every instance. Resets in progress are stopped by the reset manager.
+     */
+    public void shutdown() {
+        pools.clear();
+        for (Arena instance : new ArrayList<>(instances.values())) {
+            discard(instance);
+        }
+    }
+
+    /**
+     * Take a ready instance of a template out of the pool, and start recording its block changes
+     * so it can be reset cheaply when released
+     * @param templateName Template name
+     * @return Instance, or null if the template does not exist or no instance is ready
+     */
+    public Arena acquire(String templateName) {
+        Pool pool = pools.get(templateName);
+        if (pool == null) {
+            return null;
+        }
+
+        Arena instance = pool.ready.poll();
+        if (instance != null) {
+            handOut(pool, instance);
+        } else {
+            poolMisses.increment();
+        }
+        refill(pool);
+        return instance;
+    }
+
+    /**
+     * Take a ready instance of a template, building a new one if none is ready
+     * @param templateName Template name
+     * @return Future completing on the main thread with the instance
+     */
+    public CompletableFuture<Arena> acquireAsync(String templateName) {
+        Pool pool = pools.get(templateName);
+        if (pool == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Template " + templateName + " does not exist"));
+        }
+
+        Arena instance = acquire(templateName);
+        if (instance != null) {
+            return CompletableFuture.completedFuture(instance);
+        }
+        return build(pool, WorkPriority.HIGH).thenApply(built -> {
+            handOut(pool, built);
+            return built;
+        });
+    }
+
+    /**
+     * Give an instance back: its players are removed, its blocks are reset and it returns to the pool
+     * @param instance Instance from {@link #acquire(String)}
+     * @return Future completing once the instance is ready again
+     */
+    public CompletableFuture<Void> release(Arena instance) {
+        Pool pool = owners.get(instance);
+        if (pool == null || !pool.inUse.remove(instance)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(instance.getName() + " is not an instance in use"));
+        }
+
+        arenaManager.clearPlayers(instance);
+        CompletableFuture<Void> reset;
+        if (resetManager.isTracking(instance)) {
+            reset = resetManager.resetChanges(instance, null);
+        } else {
+            Arena source = arenaManager.getArena(pool.template.getSourceArena());
+            reset = source != null ? resetManager.paste(instance, source, WorkPriority.LOW)
+                    : CompletableFuture.failedFuture(new IllegalStateException("Arena " + pool.template.getSourceArena() + " does not exist"));
+        }
+
+        return reset.whenComplete((ignored, throwable) -> {
+            resetManager.stopTracking(instance);
+            if (throwable != null) {
+                plugin.getLogger().log(Level.WARNING, "Could not reset instance " + instance.getName(), throwable);
+                discard(instance);
+                refill(pool);
+            } else if (pools.get(pool.template.getName()) == pool) {
+                pool.ready.add(instance);
+            }
+        });
+    }
+
+    /**
+     * Get an instance by name
+     * @param name Instance name
+     * @return Instance, or null if there is none with that name
+     */
+    public Arena getInstance(String name) {
+        return instances.get(name);
+    }
+
+    /**
+     * Check if an arena is a template instance
+     * @param arena Arena
+     * @return True if it is an instance
+     */
+    public boolean isInstance(Arena arena) {
+        return owners.containsKey(arena);
+    }
+
+    /**
+     * Check if an arena is a template instance that is handed out. Safe to call from any thread.
+     * @param arena Arena
+     * @return True if it is an instance in use
+     */
+    public boolean isInUse(Arena arena) {
+        Pool pool = owners.get(arena);
+        return pool != null && pool.inUse.contains(arena);
+    }
+
+    /**
+     * Get every template
+     * @return Templates in configuration order
+     */
+    public List<ArenaTemplate> getTemplates() {
+        List<ArenaTemplate> templates = new ArrayList<>(pools.size());
+        for (Pool pool : pools.values()) {
+            templates.add(pool.template);
+        }
+        return templates;
+    }
+
+    /**
+     * Get the number of ready instances of a template
+     * @param templateName Template name
+     * @return Ready instances, 0 if the template does not exist
+     */
+    public int getReadyCount(String templateName) {
+        Pool pool = pools.get(templateName);
+        return pool != null ? pool.ready.size() : 0;
+    }
+
+    /**
+     * Get the instances of a template that are handed out
+     * @param templateName Template name
+     * @return Instances in use
+     */
+    public Collection<Arena> getInstancesInUse(String templateName) {
+        Pool pool = pools.get(templateName);
+        return pool != null ? Collections.unmodifiableSet(pool.inUse) : Collections.emptySet();
+    }
+
+    private void handOut(Pool pool, Arena instance) {
+        pool.inUse.add(instance);
+        resetManager.startTracking(instance);
+        arenaManager.refreshAvailability(instance);
+    }
+
+    /**
+     * Start building instances until the pool holds its configured number of ready instances
+     * @param pool Pool
+     */
+    private void refill(Pool pool) {
+        if (pools.get(pool.template.getName()) != pool) {
+            // Shut down
+            return;
+        }
+
+        int missing = pool.template.getPoolSize() - pool.ready.size() - pool.building;
+        for (int i = 0; i < missing; i++) {
+            CompletableFuture<Arena> built = build(pool, WorkPriority.LOW).whenComplete((instance, throwable) -> {
+                if (throwable != null) {
+                    Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                    plugin.getLogger().log(Level.WARNING, "Could not build an instance of template " + pool.template.getName(), cause);
+                } else if (pools.get(pool.template.getName()) == pool) {
+                    pool.ready.add(instance);
+                }
+            });
+            if (built.isCompletedExceptionally()) {
+                // Failed before pasting, e.g. because the source arena is missing; the other builds would fail the same way
+                break;
+            }
+        }
+    }
+
+    /**
+     * Register a new instance and paste the source arena into it
+     * @param pool Pool the instance belongs to
+     * @param priority Priority of the paste on the work scheduler
+     * @return Future completing on the main thread with the built instance, or failing with the reason it could not be built
+     */
+    private CompletableFuture<Arena> build(Pool pool, WorkPriority priority) {
+        ArenaTemplate template = pool.template;
+        Arena source = arenaManager.getArena(template.getSourceArena());
+        if (source == null || isInstance(source) || !source.getSnapshot().hasBounds()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Template " + template.getName()
+                    + " needs arena " + template.getSourceArena() + " with its region set"));
+        }
+
+        int index = pool.freeIndices.isEmpty() ? pool.nextIndex++ : pool.freeIndices.poll();
+        ArenaSnapshot placed = template.instantiate(source.getSnapshot(), index);
+        List<Arena> overlapping = arenaManager.getArenasIntersecting(placed);
+        if (!overlapping.isEmpty()) {
+            // The index stays used, so the next build moves on to the following place
+            return CompletableFuture.failedFuture(new IllegalStateException("Instance " + placed.getName()
+                    + " would overlap arena " + overlapping.get(0).getName() + ", not pasting it"));
+        }
+
+        Arena instance = new Arena(null, placed);
+        instances.put(instance.getName(), instance);
+        owners.put(instance, pool);
+        arenaManager.indexInstance(instance);
+        pool.building++;
+
+        long start = System.nanoTime();
+        return resetManager.paste(instance, source, priority).handle((ignored, throwable) -> {
+            pool.building--;
+            if (throwable != null) {
+                discard(instance);
+                pool.freeIndices.add(index);
+                throw new CompletionException(throwable);
+            }
+            buildTimer.recordSince(start);
+            return instance;
+        });
+    }
+
+    /**
+     * Forget an instance and remove it from every index
+     * @param instance Instance
+     */
+    private void discard(Arena instance) {
+        Pool pool = owners.remove(instance);
+        if (pool != null) {
+            pool.ready.remove(instance);
+            pool.inUse.remove(instance);
+        }
+        instances.remove(instance.getName(), instance);
+        arenaManager.unregister(instance);
+    }
+
+    /**
+     * Instances of one template
+     */
+    private static final class Pool {
+        private final ArenaTemplate template;
+        private final ArrayDeque<Arena> ready;
+        private final Set<Arena> inUse;
+        private final ArrayDeque<Integer> freeIndices;
+        private int nextIndex;
+        private int building;
+
+        private Pool(ArenaTemplate template) {
+            this.template = template;
+            this.ready = new ArrayDeque<>();
+            this.inUse = ConcurrentHashMap.newKeySet();
+            this.freeIndices = new ArrayDeque<>();
+        }
+    }
+}
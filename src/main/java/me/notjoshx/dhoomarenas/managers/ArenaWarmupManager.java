@@ -0,0 +1,192 @@
+package me.notjoshx.dhoomarenas.managers;
+
+import me.notjoshx.dhoomarenas.DhoomArenas;
+import me.notjoshx.dhoomarenas.models.Arena;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Loads the chunks covering an arena's region ahead of time and keeps them loaded with plugin chunk tickets
+ * while the arena is in use. Arenas and chunks are reference counted, so overlapping users never unload
+ * each other's chunks. All methods must be called from the main thread.
+ */
+public class ArenaWarmupManager {
+    private final DhoomArenas plugin;
+    private final Map<Arena, Warmup> warmups;
+    private final Map<String, Map<Long, ChunkHold>> holds;
+
+    /**
+     * Create a new warm-up manager
+     * @param plugin Plugin instance
+     */
+    public ArenaWarmupManager(DhoomArenas plugin) {
+        this.plugin = plugin;
+        this.warmups = new HashMap<>();
+        this.holds = new HashMap<>();
+    }
+
+    /**
+     * Start keeping an arena's chunks loaded. Every call must be matched by a call to {@link #release(Arena)}.
+     * @param arena Arena to warm
+     * @return Future completing once every chunk of the arena is loaded
+     */
+    public CompletableFuture<Void> warm(Arena arena) {
+        Warmup warmup = warmups.get(arena);
+        if (warmup != null) {
+            warmup.users++;
+            return warmup.ready;
+        }
+
+        Location pos1 = arena.getPos1();
+        Location pos2 = arena.getPos2();
+        if (pos1 == null || pos2 == null || pos1.getWorld() == null || pos1.getWorld() != pos2.getWorld()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        World world = pos1.getWorld();
+        int minChunkX = Math.min(pos1.getBlockX(), pos2.getBlockX()) >> 4;
+        int maxChunkX = Math.max(pos1.getBlockX(), pos2.getBlockX()) >> 4;
+        int minChunkZ = Math.min(pos1.getBlockZ(), pos2.getBlockZ()) >> 4;
+        int maxChunkZ = Math.max(pos1.getBlockZ(), pos2.getBlockZ()) >> 4;
+
+        Map<Long, ChunkHold> worldHolds = holds.computeIfAbsent(world.getName(), name -> new HashMap<>());
+        List<ChunkHold> chunks = new ArrayList<>();
+        List<CompletableFuture<?>> loads = new ArrayList<>();
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                ChunkHold hold = worldHolds.computeIfAbsent(chunkKey(chunkX, chunkZ), key -> new ChunkHold(world));
+                hold.acquire(chunkX, chunkZ);
+                chunks.add(hold);
+                loads.add(hold.loaded);
+            }
+        }
+
+        warmup = new Warmup(chunks, CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0])));
+        warmups.put(arena, warmup);
+        return warmup.ready;
+    }
+
+    /**
+     * Stop keeping an arena's chunks loaded once every user has released it
+     * @param arena Arena to release
+     */
+    public void release(Arena arena) {
+        Warmup warmup = warmups.get(arena);
+        if (warmup == null || --warmup.users > 0) {
+            return;
+        }
+
+        warmups.remove(arena);
+        for (ChunkHold hold : warmup.chunks) {
+            hold.release();
+        }
+    }
+
+    /**
+     * Release an arena's chunks regardless of how many users still hold it, e.g. because it was deleted
+     * @param arena Arena to discard
+     */
+    public void discard(Arena arena) {
+        Warmup warmup = warmups.remove(arena);
+        if (warmup == null) {
+            return;
+        }
+
+        for (ChunkHold hold : warmup.chunks) {
+            hold.release();
+        }
+    }
+
+    /**
+     * Check if an arena is currently held warm
+     * @param arena Arena
+     * @return True if warm
+     */
+    public boolean isWarm(Arena arena) {
+        return warmups.containsKey(arena);
+    }
+
+    /**
+     * Release every chunk ticket held by this manager
+     */
+    public void releaseAll() {
+        for (Warmup warmup : warmups.values()) {
+            for (ChunkHold hold : warmup.chunks) {
+                hold.release();
+            }
+        }
+        warmups.clear();
+        holds.clear();
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Arena currently held warm
+     */
+    private static final class Warmup {
+        private final List<ChunkHold> chunks;
+        private final CompletableFuture<Void> ready;
+        private int users;
+
+        private Warmup(List<ChunkHold> chunks, CompletableFuture<Void> ready) {
+            this.chunks = chunks;
+            this.ready = ready;
+            this.users = 1;
+        }
+    }
+
+    /**
+     * Reference counted hold on one chunk
+     */
+    private final class ChunkHold {
+        private final World world;
+        private CompletableFuture<Void> loaded;
+        private int chunkX;
+        private int chunkZ;
+        private int references;
+        private boolean ticketed;
+
+        private ChunkHold(World world) {
+            this.world = world;
+        }
+
+        private void acquire(int chunkX, int chunkZ) {
+            if (references++ > 0) {
+                return;
+            }
+
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            // Adding a ticket to an unloaded chunk loads it synchronously, so load it asynchronously first
+            this.loaded = world.getChunkAtAsync(chunkX, chunkZ).thenAccept(chunk -> {
+                if (references > 0 && !ticketed) {
+                    ticketed = world.addPluginChunkTicket(chunkX, chunkZ, plugin);
+                }
+            });
+        }
+
+        private void release() {
+            if (--references > 0) {
+                return;
+            }
+
+            Map<Long, ChunkHold> worldHolds = holds.get(world.getName());
+            if (worldHolds != null) {
+                worldHolds.remove(chunkKey(chunkX, chunkZ));
+            }
+            if (ticketed) {
+                world.removePluginChunkTicket(chunkX, chunkZ, plugin);
+                ticketed = false;
+            }
+        }
+    }
+}
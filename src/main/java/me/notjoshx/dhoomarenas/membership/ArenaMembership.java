@@ -0,0 +1,150 @@
+package me.notjoshx.dhoomarenas.membership;
+
+import me.notjoshx.dhoomarenas.models.Arena;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of which players are in which arena.
+ * A player is in at most one arena, and an arena never holds more players than its max players.
+ * Joining and leaving are atomic and safe from any thread; lookups are lock-free and do not allocate.
+ */
+public class ArenaMembership {
+    private final ConcurrentMap<UUID, ArenaRoster> byPlayer;
+    private final ConcurrentMap<Arena, ArenaRoster> rosters;
+
+    /**
+     * Create a new, empty registry
+     */
+    public ArenaMembership() {
+        this.byPlayer = new ConcurrentHashMap<>();
+        this.rosters = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Add a player to an arena if it has a free slot and the player is not in another arena
+     * @param playerId Player UUID
+     * @param arena Arena to join
+     * @return Outcome
+     */
+    public JoinResult join(UUID playerId, Arena arena) {
+        ArenaRoster roster = rosters.computeIfAbsent(arena, ArenaRoster::new);
+        synchronized (roster) {
+            if (roster.isDiscarded()) {
+                return JoinResult.NO_ARENA;
+            }
+            ArenaRoster current = byPlayer.get(playerId);
+            if (current == roster) {
+                return JoinResult.ALREADY_JOINED;
+            }
+            if (current != null) {
+                return JoinResult.IN_OTHER_ARENA;
+            }
+            if (roster.size() >= arena.getMaxPlayers()) {
+                return JoinResult.FULL;
+            }
+            // Another thread may be adding the same player to a different arena
+            if (byPlayer.putIfAbsent(playerId, roster) != null) {
+                return JoinResult.IN_OTHER_ARENA;
+            }
+            roster.add(playerId);
+        }
+        return JoinResult.JOINED;
+    }
+
+    /**
+     * Remove a player from their arena
+     * @param playerId Player UUID
+     * @return Arena the player left, or null if they were not in one
+     */
+    public Arena leave(UUID playerId) {
+        ArenaRoster roster = byPlayer.get(playerId);
+        if (roster == null) {
+            return null;
+        }
+
+        synchronized (roster) {
+            if (!byPlayer.remove(playerId, roster)) {
+                // Left concurrently
+                return null;
+            }
+            roster.remove(playerId);
+        }
+        return roster.getArena();
+    }
+
+    /**
+     * Get the arena a player is in
+     * @param playerId Player UUID
+     * @return Arena, or null if the player is not in one
+     */
+    public Arena getArena(UUID playerId) {
+        ArenaRoster roster = byPlayer.get(playerId);
+        return roster != null ? roster.getArena() : null;
+    }
+
+    /**
+     * Check if a player is in any arena
+     * @param playerId Player UUID
+     * @return True if in an arena
+     */
+    public boolean isInArena(UUID playerId) {
+        return byPlayer.containsKey(playerId);
+    }
+
+    /**
+     * Get the players in an arena
+     * @param arena Arena
+     * @return Live, unmodifiable view of player UUIDs
+     */
+    public Set<UUID> getPlayers(Arena arena) {
+        ArenaRoster roster = rosters.get(arena);
+        return roster != null ? roster.getPlayers() : Collections.emptySet();
+    }
+
+    /**
+     * Get the number of players in an arena
+     * @param arena Arena
+     * @return Player count
+     */
+    public int getPlayerCount(Arena arena) {
+        ArenaRoster roster = rosters.get(arena);
+        return roster != null ? roster.size() : 0;
+    }
+
+    /**
+     * Get the number of players in any arena
+     * @return Player count
+     */
+    public int getTotalPlayerCount() {
+        return byPlayer.size();
+    }
+
+    /**
+     * Remove every player from an arena and forget it, e.g. because it was deleted
+     * @param arena Arena
+     * @return Players that were removed
+     */
+    public List<UUID> discard(Arena arena) {
+        ArenaRoster roster = rosters.remove(arena);
+        if (roster == null) {
+            return Collections.emptyList();
+        }
+
+        synchronized (roster) {
+            roster.discard();
+            List<UUID> removed = new ArrayList<>(roster.getPlayers());
+            for (UUID playerId : removed) {
+                byPlayer.remove(playerId, roster);
+                roster.remove(playerId);
+            }
+            return removed;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package me.notjoshx.dhoomarenas.membership;
+
+import me.notjoshx.dhoomarenas.models.Arena;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Players currently in one arena.
+ * Reads are lock-free; changes go through {@link ArenaMembership}, which holds the roster's lock while checking capacity.
+ */
+public final class ArenaRoster {
+    private final Arena arena;
+    private final Set<UUID> players;
+    private final Set<UUID> playersView;
+    private volatile int size;
+    private boolean discarded;
+
+    ArenaRoster(Arena arena) {
+        this.arena = arena;
+        this.players = ConcurrentHashMap.newKeySet();
+        this.playersView = Collections.unmodifiableSet(players);
+    }
+
+    /**
+     * Get the arena
+     * @return Arena
+     */
+    public Arena getArena() {
+        return arena;
+    }
+
+    /**
+     * Get the players in the arena
+     * @return Live, unmodifiable view of player UUIDs
+     */
+    public Set<UUID> getPlayers() {
+        return playersView;
+    }
+
+    /**
+     * Get the number of players in the arena
+     * @return Player count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of players that can still join
+     * @return Free slots, never negative
+     */
+    public int getFreeSlots() {
+        return Math.max(0, arena.getMaxPlayers() - size);
+    }
+
+    boolean isDiscarded() {
+        return discarded;
+    }
+
+    void discard() {
+        discarded = true;
+    }
+
+    void add(UUID playerId) {
+        players.add(playerId);
+        size = players.size();
+    }
+
+    void remove(UUID playerId) {
+        players.remove(playerId);
+        size = players.size();
+    }
+}
@@ -0,0 +1,17 @@
+package me.notjoshx.dhoomarenas.membership;
+
+/**
+ * Outcome of a player trying to join an arena
+ */
+public enum JoinResult {
+    /** The player joined the arena */
+    JOINED,
+    /** The player was already in this arena */
+    ALREADY_JOINED,
+    /** The player is in another arena and has to leave it first */
+    IN_OTHER_ARENA,
+    /** The arena has as many players as its max players allow */
+    FULL,
+    /** The arena does not exist */
+    NO_ARENA
+}
@@ -0,0 +1,167 @@
+package me.notjoshx.dhoomarenas.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two nanosecond buckets.
+ * Recording a sample only touches striped counters and never allocates, so it is cheap enough for the tick thread.
+ */
+public final class LatencyHistogram {
+    /** Number of buckets; bucket i holds samples below 2^i nanoseconds, the last one everything above */
+    public static final int BUCKETS = 40;
+
+    private final String name;
+    private final String description;
+    private final LongAdder[] buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+
+    /**
+     * Create a new histogram
+     * @param name Metric name, lowercase with underscores
+     * @param description Human readable description
+     */
+    public LatencyHistogram(String name, String description) {
+        this.name = name;
+        this.description = description;
+        this.buckets = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0L);
+    }
+
+    /**
+     * Record a sample
+     * @param nanos Duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0L) {
+            nanos = 0L;
+        }
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos))].increment();
+        count.increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Record the time elapsed since a start time
+     * @param startNanos Start time from {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Get the metric name
+     * @return Name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the metric description
+     * @return Description
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Get the number of samples
+     * @return Sample count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get the total of all samples
+     * @return Sum in nanoseconds
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Get the largest sample
+     * @return Maximum in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get the average sample
+     * @return Mean in nanoseconds, 0 if there are no samples
+     */
+    public double getMean() {
+        long samples = getCount();
+        return samples == 0L ? 0.0D : (double) getSum() / samples;
+    }
+
+    /**
+     * Get an approximate percentile, rounded up to the next bucket boundary
+     * @param percentile Percentile from 0 to 1
+     * @return Upper bound of the percentile in nanoseconds, 0 if there are no samples
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = getBucketCounts();
+        long total = 0L;
+        for (long bucket : counts) {
+            total += bucket;
+        }
+        if (total == 0L) {
+            return 0L;
+        }
+
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(getUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Get the number of samples in each bucket
+     * @return Bucket counts
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Get the exclusive upper bound of a bucket
+     * @param bucket Bucket index
+     * @return Upper bound in nanoseconds, {@link Long#MAX_VALUE} for the last bucket
+     */
+    public static long getUpperBound(int bucket) {
+        return bucket >= BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    /**
+     * Forget every sample
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+}
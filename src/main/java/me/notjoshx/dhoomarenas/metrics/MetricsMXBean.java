@@ -0,0 +1,49 @@
+package me.notjoshx.dhoomarenas.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the plugin's metrics, registered as {@code me.notjoshx.dhoomarenas:type=Metrics}
+ */
+public interface MetricsMXBean {
+    /**
+     * Get the number of samples of each timer
+     * @return Sample count by timer name
+     */
+    Map<String, Long> getCounts();
+
+    /**
+     * Get the average duration of each timer
+     * @return Mean in milliseconds by timer name
+     */
+    Map<String, Double> getMeanMillis();
+
+    /**
+     * Get the approximate 99th percentile of each timer
+     * @return 99th percentile in milliseconds by timer name
+     */
+    Map<String, Double> getP99Millis();
+
+    /**
+     * Get the longest duration of each timer
+     * @return Maximum in milliseconds by timer name
+     */
+    Map<String, Double> getMaxMillis();
+
+    /**
+     * Get the value of every counter
+     * @return Counter value by name
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Get the current value of every gauge
+     * @return Gauge value by name
+     */
+    Map<String, Double> getGauges();
+
+    /**
+     * Reset every timer and counter
+     */
+    void reset();
+}
@@ -0,0 +1,269 @@
+package me.notjoshx.dhoomarenas.metrics;
+
+import me.notjoshx.dhoomarenas.DhoomArenas;
+import org.bukkit.scheduler.BukkitTask;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.ToDoubleFunction;
+import java.util.logging.Level;
+
+/**
+ * Registry of the plugin's timers, counters and gauges.
+ * Look metrics up once and keep the reference; recording is then lock-free and allocation-free from any thread.
+ * The metrics are exposed over JMX and, if enabled, written to a Prometheus text file on an interval.
+ */
+public class PluginMetrics implements MetricsMXBean {
+    private static final String PREFIX = "dhoomarenas_";
+
+    private final DhoomArenas plugin;
+    private final ConcurrentMap<String, LatencyHistogram> timers;
+    private final ConcurrentMap<String, LongAdder> counters;
+    private final ConcurrentMap<String, Gauge> gauges;
+    private ObjectName objectName;
+    private BukkitTask exportTask;
+
+    /**
+     * Create a new metrics registry
+     * @param plugin Plugin instance
+     */
+    public PluginMetrics(DhoomArenas plugin) {
+        this.plugin = plugin;
+        this.timers = new ConcurrentHashMap<>();
+        this.counters = new ConcurrentHashMap<>();
+        this.gauges = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get or create a timer
+     * @param name Timer name, lowercase with underscores
+     * @param description Human readable description, used when the timer is created
+     * @return Timer
+     */
+    public LatencyHistogram timer(String name, String description) {
+        return timers.computeIfAbsent(name, key -> new LatencyHistogram(key, description));
+    }
+
+    /**
+     * Get or create a counter
+     * @param name Counter name, lowercase with underscores
+     * @return Counter
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Register a gauge, replacing any earlier gauge with the same name
+     * @param name Gauge name, lowercase with underscores
+     * @param description Human readable description
+     * @param value Supplier of the current value, which must be safe to call from any thread
+     */
+    public void gauge(String name, String description, DoubleSupplier value) {
+        gauges.put(name, new Gauge(description, value));
+    }
+
+    /**
+     * Get every timer
+     * @return Timers sorted by name
+     */
+    public Collection<LatencyHistogram> getTimers() {
+        return Collections.unmodifiableCollection(new TreeMap<>(timers).values());
+    }
+
+    /**
+     * Register the JMX bean and start the Prometheus export if enabled
+     */
+    public void start() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            objectName = new ObjectName("me.notjoshx.dhoomarenas:type=Metrics");
+            if (server.isRegistered(objectName)) {
+                // Left behind by a previous instance, e.g. after a plugin reload
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            objectName = null;
+            plugin.getLogger().log(Level.WARNING, "Could not register metrics MBean", e);
+        }
+
+        if (plugin.getConfig().getBoolean("metrics.prometheus.enabled", false)) {
+            long interval = Math.max(1L, plugin.getConfig().getLong("metrics.prometheus.interval-seconds", 15L)) * 20L;
+            File file = new File(plugin.getDataFolder(), plugin.getConfig().getString("metrics.prometheus.file", "metrics.prom"));
+            exportTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, () -> writePrometheus(file), interval, interval);
+        }
+    }
+
+    /**
+     * Unregister the JMX bean and stop the Prometheus export
+     */
+    public void shutdown() {
+        if (exportTask != null) {
+            exportTask.cancel();
+            exportTask = null;
+        }
+
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException ignored) {
+                // Already unregistered
+            }
+            objectName = null;
+        }
+    }
+
+    /**
+     * Render every metric in the Prometheus text exposition format
+     * @return Metrics text
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        for (LatencyHistogram timer : getTimers()) {
+            String metric = PREFIX + timer.getName() + "_seconds";
+            out.append("# HELP ").append(metric).append(' ').append(timer.getDescription()).append('\n');
+            out.append("# TYPE ").append(metric).append(" histogram\n");
+
+            long[] buckets = timer.getBucketCounts();
+            int last = buckets.length - 2;
+            while (last > 0 && buckets[last] == 0L) {
+                last--;
+            }
+            long cumulative = 0L;
+            for (int i = 0; i <= last; i++) {
+                cumulative += buckets[i];
+                out.append(metric).append("_bucket{le=\"")
+                        .append(seconds(LatencyHistogram.getUpperBound(i))).append("\"} ").append(cumulative).append('\n');
+            }
+            // Read the count after the buckets so the +Inf bucket is never below the others
+            long count = Math.max(cumulative, timer.getCount());
+            out.append(metric).append("_bucket{le=\"+Inf\"} ").append(count).append('\n');
+            out.append(metric).append("_sum ").append(seconds(timer.getSum())).append('\n');
+            out.append(metric).append("_count ").append(count).append('\n');
+        }
+
+        for (Map.Entry<String, Long> counter : getCounters().entrySet()) {
+            String metric = PREFIX + counter.getKey() + "_total";
+            out.append("# TYPE ").append(metric).append(" counter\n");
+            out.append(metric).append(' ').append(counter.getValue()).append('\n');
+        }
+
+        for (Map.Entry<String, Gauge> gauge : new TreeMap<>(gauges).entrySet()) {
+            String metric = PREFIX + gauge.getKey();
+            out.append("# HELP ").append(metric).append(' ').append(gauge.getValue().description).append('\n');
+            out.append("# TYPE ").append(metric).append(" gauge\n");
+            out.append(metric).append(' ').append(gauge.getValue().value.getAsDouble()).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Write the Prometheus text file, replacing it atomically
+     * @param file Target file
+     */
+    private void writePrometheus(File file) {
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        try {
+            Files.write(temp, toPrometheus().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not write metrics file", e);
+        }
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1_000_000_000.0D);
+    }
+
+    private Map<String, Double> collect(ToDoubleFunction<LatencyHistogram> value) {
+        Map<String, Double> values = new TreeMap<>();
+        for (LatencyHistogram timer : timers.values()) {
+            values.put(timer.getName(), value.applyAsDouble(timer));
+        }
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+        Map<String, Long> values = new TreeMap<>();
+        for (LatencyHistogram timer : timers.values()) {
+            values.put(timer.getName(), timer.getCount());
+        }
+        return values;
+    }
+
+    @Override
+    public Map<String, Double> getMeanMillis() {
+        return collect(timer -> timer.getMean() / 1_000_000.0D);
+    }
+
+    @Override
+    public Map<String, Double> getP99Millis() {
+        return collect(timer -> timer.getPercentile(0.99D) / 1_000_000.0D);
+    }
+
+    @Override
+    public Map<String, Double> getMaxMillis() {
+        return collect(timer -> timer.getMax() / 1_000_000.0D);
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+            values.put(counter.getKey(), counter.getValue().sum());
+        }
+        return values;
+    }
+
+    @Override
+    public Map<String, Double> getGauges() {
+        Map<String, Double> values = new TreeMap<>();
+        for (Map.Entry<String, Gauge> gauge : gauges.entrySet()) {
+            values.put(gauge.getKey(), gauge.getValue().value.getAsDouble());
+        }
+        return values;
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram timer : timers.values()) {
+            timer.reset();
+        }
+        for (LongAdder counter : counters.values()) {
+            counter.reset();
+        }
+    }
+
+    /**
+     * Value read when metrics are exported
+     */
+    private static final class Gauge {
+        private final String description;
+        private final DoubleSupplier value;
+
+        private Gauge(String description, DoubleSupplier value) {
+            this.description = description;
+            this.value = value;
+        }
+    }
+}
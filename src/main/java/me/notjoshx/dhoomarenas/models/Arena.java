@@ -1,24 +1,38 @@
 package me.notjoshx.dhoomarenas.models;
 
+import me.notjoshx.dhoomarenas.storage.ArenaMutation;
+import me.notjoshx.dhoomarenas.storage.ArenaSaveQueue;
 import org.bukkit.Location;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class Arena {
+    private static final ThreadLocal<Yaml> LOADER = ThreadLocal.withInitial(() -> new Yaml(new SafeConstructor(new LoaderOptions())));
+    private static final ThreadLocal<Yaml> DUMPER = ThreadLocal.withInitial(() -> {
+        DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        return new Yaml(options);
+    });
+    private static final String[] SLOT_KEYS = {"pos1", "pos2", "center"};
+
     private final String name;
     private final File configFile;
-    private FileConfiguration config;
-    private Location pos1;
-    private Location pos2;
-    private int maxPlayers;
-    private Location center;
-    private final Map<Integer, Location> spawnPoints;
-    private int waitTimeSeconds;
+    private Map<String, Object> extras;
+    private volatile ArenaSnapshot snapshot;
+    private volatile ArenaValidation validation;
+    private ArenaSaveQueue saveQueue;
+    private volatile long fileLength;
+    private volatile long fileModified;
 
     /**
      * Create a new arena
@@ -28,71 +42,383 @@ public class Arena {
     public Arena(String name, File configFile) {
         this.name = name;
         this.configFile = configFile;
-        this.spawnPoints = new HashMap<>();
-        loadConfig();
+        setFileStamp(configFile.length(), configFile.lastModified());
+        loadConfig(readFile());
+    }
+
+    /**
+     * Create an arena from configuration contents that were read from a storage backend
+     * @param name Arena name
+     * @param configFile Configuration file, or null if the arena is not stored as a file
+     * @param data Configuration contents in the format written by {@link #saveToString()}
+     */
+    public Arena(String name, File configFile, String data) {
+        this.name = name;
+        this.configFile = configFile;
+        loadConfig(parse(data));
+    }
+
+    /**
+     * Create an arena from already loaded values, without parsing its configuration file
+     * @param name Arena name
+     * @param configFile Configuration file
+     * @param maxPlayers Max players
+     * @param waitTimeSeconds Wait time in seconds
+     * @param pos1 Position 1, or null
+     * @param pos2 Position 2, or null
+     * @param center Center location, or null
+     * @param spawnPoints Spawn points
+     */
+    public Arena(String name, File configFile, int maxPlayers, int waitTimeSeconds,
+                 Location pos1, Location pos2, Location center, Map<Integer, Location> spawnPoints) {
+        this.name = name;
+        this.configFile = configFile;
+        this.snapshot = ArenaSnapshot.of(name, maxPlayers, waitTimeSeconds, pos1, pos2, center, spawnPoints);
     }
 
     /**
-     * Load arena configuration
+     * Create an arena from an already built snapshot, without parsing its configuration file
+     * @param configFile Configuration file, or null for an arena that only lives in memory
+     * @param snapshot Arena values
      */
-    private void loadConfig() {
-        this.config = YamlConfiguration.loadConfiguration(configFile);
-        this.maxPlayers = config.getInt("maxPlayers", 0);
-        this.waitTimeSeconds = config.getInt("waitTimeSeconds", 10);
+    public Arena(File configFile, ArenaSnapshot snapshot) {
+        this.name = snapshot.getName();
+        this.configFile = configFile;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Load arena configuration. Locations are kept as world names and coordinates, so worlds do not have to be loaded.
+     * @param values Top-level configuration values
+     * @throws IllegalArgumentException If the configuration is not valid
+     */
+    private void loadConfig(Map<String, Object> values) {
+        ArenaSnapshot.Builder builder = new ArenaSnapshot.Builder(name)
+                .maxPlayers(toInt(values.get("maxPlayers"), 0))
+                .waitTimeSeconds(toInt(values.get("waitTimeSeconds"), 10));
 
         // Load locations
-        if (config.contains("pos1")) {
-            this.pos1 = (Location) config.get("pos1");
+        for (int slot = 0; slot < SLOT_KEYS.length; slot++) {
+            readLocation(values.get(SLOT_KEYS[slot]), SLOT_KEYS[slot], builder, slot, 0);
         }
-        if (config.contains("pos2")) {
-            this.pos2 = (Location) config.get("pos2");
+
+        // Load spawn points
+        Object spawnPoints = values.get("spawnPoints");
+        if (spawnPoints instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) spawnPoints).entrySet()) {
+                int pointNumber = Integer.parseInt(String.valueOf(entry.getKey()));
+                readLocation(entry.getValue(), "spawnPoints." + pointNumber, builder, -1, pointNumber);
+            }
         }
-        if (config.contains("center")) {
-            this.center = (Location) config.get("center");
+
+        this.extras = extractExtras(values);
+        this.snapshot = builder.build();
+    }
+
+    /**
+     * Parse the configuration file into plain values
+     * @return Top-level values, empty if the file is empty
+     * @throws IllegalArgumentException If the file cannot be read or is not valid
+     */
+    private Map<String, Object> readFile() {
+        String data;
+        try {
+            data = new String(Files.readAllBytes(configFile.toPath()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read " + configFile.getName(), e);
         }
+        return parse(data);
+    }
 
-        // Load spawn points
-        if (config.contains("spawnPoints")) {
-            for (String key : config.getConfigurationSection("spawnPoints").getKeys(false)) {
-                int pointNumber = Integer.parseInt(key);
-                spawnPoints.put(pointNumber, (Location) config.get("spawnPoints." + key));
+    /**
+     * Parse configuration contents into plain values
+     * @param data Configuration contents
+     * @return Top-level values, empty if there are none
+     * @throws IllegalArgumentException If the contents are not valid
+     */
+    private Map<String, Object> parse(String data) {
+        Object root;
+        try {
+            root = LOADER.get().load(data);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid YAML in " + describeSource(), e);
+        }
+        if (root == null) {
+            return Collections.emptyMap();
+        }
+        if (!(root instanceof Map)) {
+            throw new IllegalArgumentException(describeSource() + " is not a YAML mapping");
+        }
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) root).entrySet()) {
+            values.put(String.valueOf(entry.getKey()), entry.getValue());
+        }
+        return values;
+    }
+
+    /**
+     * Keep top-level values this class does not manage, so saving does not drop them
+     * @param values Top-level values
+     * @return Unmanaged values
+     */
+    private static Map<String, Object> extractExtras(Map<String, Object> values) {
+        Map<String, Object> extras = new LinkedHashMap<>(values);
+        extras.remove("name");
+        extras.remove("maxPlayers");
+        extras.remove("waitTimeSeconds");
+        extras.remove("spawnPoints");
+        for (String key : SLOT_KEYS) {
+            extras.remove(key);
+        }
+        return extras;
+    }
+
+    /**
+     * Read a stored location into a builder slot. Accepts the compact {@code world,x,y,z,yaw,pitch} form
+     * and the map form written by Bukkit's location serialization.
+     * @param value Stored value, or null
+     * @param path Path of the value, for error messages
+     * @param builder Builder to fill
+     * @param slot Slot to set, or -1 for a spawn point
+     * @param spawnNumber Spawn point number when slot is -1
+     */
+    private void readLocation(Object value, String path, ArenaSnapshot.Builder builder, int slot, int spawnNumber) {
+        if (value == null) {
+            return;
+        }
+
+        String world;
+        double x;
+        double y;
+        double z;
+        float yaw;
+        float pitch;
+        try {
+            if (value instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                world = map.get("world") != null ? String.valueOf(map.get("world")) : null;
+                x = toDouble(map.get("x"));
+                y = toDouble(map.get("y"));
+                z = toDouble(map.get("z"));
+                yaw = (float) toDouble(map.get("yaw"));
+                pitch = (float) toDouble(map.get("pitch"));
+            } else {
+                // Split from the right so world names containing commas survive
+                String text = String.valueOf(value);
+                int[] commas = new int[5];
+                int end = text.length();
+                for (int i = 4; i >= 0; i--) {
+                    end = text.lastIndexOf(',', end - 1);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("expected world,x,y,z,yaw,pitch");
+                    }
+                    commas[i] = end;
+                }
+                world = text.substring(0, commas[0]).trim();
+                x = Double.parseDouble(text.substring(commas[0] + 1, commas[1]).trim());
+                y = Double.parseDouble(text.substring(commas[1] + 1, commas[2]).trim());
+                z = Double.parseDouble(text.substring(commas[2] + 1, commas[3]).trim());
+                yaw = Float.parseFloat(text.substring(commas[3] + 1, commas[4]).trim());
+                pitch = Float.parseFloat(text.substring(commas[4] + 1).trim());
             }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid location at " + path + " in " + describeSource() + ": " + e.getMessage(), e);
+        }
+
+        if (world == null || world.isEmpty()) {
+            return;
+        }
+        if (slot >= 0) {
+            builder.set(slot, world, x, y, z, yaw, pitch);
+        } else {
+            builder.spawnPoint(spawnNumber, world, x, y, z, yaw, pitch);
         }
     }
 
+    /**
+     * Describe where this arena is stored, for error messages
+     * @return File name, or the arena name if it is not stored as a file
+     */
+    private String describeSource() {
+        return configFile != null ? configFile.getName() : "arena " + name;
+    }
+
+    private static int toInt(Object value, int def) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Integer.parseInt(((String) value).trim());
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return def;
+    }
+
+    private static double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return value != null ? Double.parseDouble(String.valueOf(value)) : 0.0D;
+    }
+
+    /**
+     * Format a stored location in the compact {@code world,x,y,z,yaw,pitch} form
+     * @param snapshot Snapshot holding the location
+     * @param slot Slot
+     * @return Formatted location
+     */
+    private static String formatLocation(ArenaSnapshot snapshot, int slot) {
+        return snapshot.getWorldName(slot) + ',' + snapshot.getX(slot) + ',' + snapshot.getY(slot) + ',' + snapshot.getZ(slot)
+                + ',' + snapshot.getYaw(slot) + ',' + snapshot.getPitch(slot);
+    }
+
     /**
      * Save arena configuration
      */
     public void saveConfig() {
-        config.set("name", name);
-        config.set("maxPlayers", maxPlayers);
-        config.set("waitTimeSeconds", waitTimeSeconds);
+        String data = saveToString();
 
-        // Save locations
-        if (pos1 != null) {
-            config.set("pos1", pos1);
+        try {
+            Files.write(configFile.toPath(), data.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            e.printStackTrace();
         }
-        if (pos2 != null) {
-            config.set("pos2", pos2);
+    }
+
+    /**
+     * Serialize arena configuration without writing it to disk
+     * @return Configuration contents
+     */
+    public String saveToString() {
+        return saveToString(snapshot);
+    }
+
+    /**
+     * Serialize arena configuration as of a given snapshot, without writing it to disk
+     * @param current Snapshot of this arena to serialize
+     * @return Configuration contents
+     */
+    public String saveToString(ArenaSnapshot current) {
+        if (extras == null) {
+            // Arenas restored from the startup snapshot only read their file once they are saved
+            try {
+                extras = configFile != null && configFile.isFile() ? extractExtras(readFile()) : new LinkedHashMap<>();
+            } catch (IllegalArgumentException e) {
+                extras = new LinkedHashMap<>();
+            }
         }
-        if (center != null) {
-            config.set("center", center);
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("name", name);
+        values.put("maxPlayers", current.getMaxPlayers());
+        values.put("waitTimeSeconds", current.getWaitTimeSeconds());
+
+        // Save locations
+        for (int slot = 0; slot < SLOT_KEYS.length; slot++) {
+            if (current.isSet(slot)) {
+                values.put(SLOT_KEYS[slot], formatLocation(current, slot));
+            }
         }
 
         // Save spawn points
-        for (Map.Entry<Integer, Location> entry : spawnPoints.entrySet()) {
-            config.set("spawnPoints." + entry.getKey(), entry.getValue());
+        if (current.getSpawnPointCount() > 0) {
+            Map<Integer, String> spawnPoints = new LinkedHashMap<>();
+            for (int i = 0; i < current.getSpawnPointCount(); i++) {
+                int slot = ArenaSnapshot.FIRST_SPAWN + i;
+                if (current.isSet(slot)) {
+                    spawnPoints.put(current.getSpawnPointNumber(i), formatLocation(current, slot));
+                }
+            }
+            values.put("spawnPoints", spawnPoints);
         }
 
-        try {
-            config.save(configFile);
-        } catch (IOException e) {
-            e.printStackTrace();
+        values.putAll(extras);
+        return DUMPER.get().dump(values);
+    }
+
+    /**
+     * Persist a change, through the save queue when one is attached.
+     * Arenas without a save queue or file, such as template instances, only live in memory.
+     * @param mutation The change, for the journal
+     */
+    private void markDirty(ArenaMutation mutation) {
+        if (saveQueue != null) {
+            saveQueue.markDirty(this, mutation);
+        } else if (configFile != null) {
+            saveConfig();
+        }
+    }
+
+    /**
+     * Apply a change replayed from the journal, without recording it again
+     * @param mutation Replayed change
+     */
+    public synchronized void applyMutation(ArenaMutation mutation) {
+        ArenaSnapshot.Builder builder = snapshot.toBuilder();
+        mutation.applyTo(builder);
+        this.snapshot = builder.build();
+        if (saveQueue != null) {
+            saveQueue.markDirty(this);
         }
     }
 
+    /**
+     * Take over the state of a freshly parsed copy of this arena's file, without writing it back
+     * @param reloaded Arena parsed from the changed file
+     */
+    public synchronized void reloadFrom(Arena reloaded) {
+        this.extras = reloaded.extras;
+        this.snapshot = reloaded.snapshot;
+        setFileStamp(reloaded.fileLength, reloaded.fileModified);
+    }
+
+    /**
+     * Attach the save queue used to persist changes
+     * @param saveQueue Save queue, or null to save immediately
+     */
+    public void setSaveQueue(ArenaSaveQueue saveQueue) {
+        this.saveQueue = saveQueue;
+    }
+
     // Getters and setters
 
+    /**
+     * Get the configuration file
+     * @return Configuration file, or null if the arena is not stored as a file
+     */
+    public File getConfigFile() {
+        return configFile;
+    }
+
+    /**
+     * Record the size and modification time of the configuration file as last loaded or written
+     * @param fileLength File size in bytes
+     * @param fileModified File modification time
+     */
+    public void setFileStamp(long fileLength, long fileModified) {
+        this.fileLength = fileLength;
+        this.fileModified = fileModified;
+    }
+
+    /**
+     * Get the configuration file size as last loaded or written
+     * @return File size in bytes
+     */
+    public long getFileLength() {
+        return fileLength;
+    }
+
+    /**
+     * Get the configuration file modification time as last loaded or written
+     * @return File modification time
+     */
+    public long getFileModified() {
+        return fileModified;
+    }
+
     /**
      * Get arena name
      * @return Arena name
@@ -101,21 +427,52 @@ public class Arena {
         return name;
     }
 
+    /**
+     * Get the current immutable snapshot of this arena, safe to read from any thread
+     * @return Arena snapshot
+     */
+    public ArenaSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get whether this arena can be played, and why not.
+     * The result is cached until the arena changes or a world loads or unloads. Safe to call from any thread.
+     * @return Validation result
+     */
+    public ArenaValidation getValidation() {
+        ArenaSnapshot current = snapshot;
+        ArenaValidation cached = validation;
+        if (cached == null || !cached.isCurrent(current)) {
+            cached = ArenaValidation.of(current);
+            validation = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * Check if this arena can be played
+     * @return True if its positions, center and spawn points for every player are set, in loaded worlds
+     */
+    public boolean isReady() {
+        return getValidation().isReady();
+    }
+
     /**
      * Get position 1
      * @return Position 1
      */
     public Location getPos1() {
-        return pos1;
+        return snapshot.getPos1();
     }
 
     /**
      * Set position 1
      * @param pos1 Position 1
      */
-    public void setPos1(Location pos1) {
-        this.pos1 = pos1;
-        saveConfig();
+    public synchronized void setPos1(Location pos1) {
+        this.snapshot = snapshot.withPos1(pos1);
+        markDirty(ArenaMutation.location(name, ArenaSnapshot.POS1, pos1));
     }
 
     /**
@@ -123,16 +480,16 @@ public class Arena {
      * @return Position 2
      */
     public Location getPos2() {
-        return pos2;
+        return snapshot.getPos2();
     }
 
     /**
      * Set position 2
      * @param pos2 Position 2
      */
-    public void setPos2(Location pos2) {
-        this.pos2 = pos2;
-        saveConfig();
+    public synchronized void setPos2(Location pos2) {
+        this.snapshot = snapshot.withPos2(pos2);
+        markDirty(ArenaMutation.location(name, ArenaSnapshot.POS2, pos2));
     }
 
     /**
@@ -140,16 +497,16 @@ public class Arena {
      * @return Max players
      */
     public int getMaxPlayers() {
-        return maxPlayers;
+        return snapshot.getMaxPlayers();
     }
 
     /**
      * Set max players
      * @param maxPlayers Max players
      */
-    public void setMaxPlayers(int maxPlayers) {
-        this.maxPlayers = maxPlayers;
-        saveConfig();
+    public synchronized void setMaxPlayers(int maxPlayers) {
+        this.snapshot = snapshot.withMaxPlayers(maxPlayers);
+        markDirty(ArenaMutation.maxPlayers(name, maxPlayers));
     }
 
     /**
@@ -157,24 +514,24 @@ public class Arena {
      * @return Center location
      */
     public Location getCenter() {
-        return center;
+        return snapshot.getCenter();
     }
 
     /**
      * Set center location
      * @param center Center location
      */
-    public void setCenter(Location center) {
-        this.center = center;
-        saveConfig();
+    public synchronized void setCenter(Location center) {
+        this.snapshot = snapshot.withCenter(center);
+        markDirty(ArenaMutation.location(name, ArenaSnapshot.CENTER, center));
     }
 
     /**
      * Get spawn points
-     * @return Spawn points
+     * @return Unmodifiable map of spawn points, ordered by number, shared between callers so the locations must not be modified
      */
     public Map<Integer, Location> getSpawnPoints() {
-        return spawnPoints;
+        return snapshot.getSpawnPoints();
     }
 
     /**
@@ -182,9 +539,9 @@ public class Arena {
      * @param number Spawn point number
      * @param location Spawn point location
      */
-    public void setSpawnPoint(int number, Location location) {
-        spawnPoints.put(number, location);
-        saveConfig();
+    public synchronized void setSpawnPoint(int number, Location location) {
+        this.snapshot = snapshot.withSpawnPoint(number, location);
+        markDirty(ArenaMutation.spawnPoint(name, number, location));
     }
 
     /**
@@ -192,15 +549,15 @@ public class Arena {
      * @return Wait time in seconds
      */
     public int getWaitTimeSeconds() {
-        return waitTimeSeconds;
+        return snapshot.getWaitTimeSeconds();
     }
 
     /**
      * Set wait time in seconds
      * @param waitTimeSeconds Wait time in seconds
      */
-    public void setWaitTimeSeconds(int waitTimeSeconds) {
-        this.waitTimeSeconds = waitTimeSeconds;
-        saveConfig();
+    public synchronized void setWaitTimeSeconds(int waitTimeSeconds) {
+        this.snapshot = snapshot.withWaitTimeSeconds(waitTimeSeconds);
+        markDirty(ArenaMutation.waitTime(name, waitTimeSeconds));
     }
 }
@@ -0,0 +1,665 @@
+package me.notjoshx.dhoomarenas.models;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Immutable view of an arena at one point in time.
+ * Snapshots can be read from any thread without locking; a change to an arena publishes a new snapshot.
+ * Locations are stored packed as a world name plus primitive coordinates, so arenas never hold on to worlds
+ * and load fine while their world is not loaded. Bukkit locations are only created when asked for.
+ */
+public final class ArenaSnapshot {
+    /** Slot of position 1 */
+    public static final int POS1 = 0;
+    /** Slot of position 2 */
+    public static final int POS2 = 1;
+    /** Slot of the center */
+    public static final int CENTER = 2;
+    /** Slot of the first spawn point */
+    public static final int FIRST_SPAWN = 3;
+
+    private final String name;
+    private final int maxPlayers;
+    private final int waitTimeSeconds;
+    private final String[] worlds;
+    private final double[] coords;
+    private final float[] angles;
+    private final int[] spawnNumbers;
+    private final String boundsWorld;
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int maxX;
+    private final int maxY;
+    private final int maxZ;
+    private volatile SpawnPoints spawnPoints;
+
+    /**
+     * Create a new snapshot
+     * @param name Arena name
+     * @param maxPlayers Max players
+     * @param waitTimeSeconds Wait time in seconds
+     * @param worlds World name of each slot, null where unset
+     * @param coords X, Y and Z of each slot
+     * @param angles Yaw and pitch of each slot
+     * @param spawnNumbers Spawn point numbers in ascending order, one per slot from {@link #FIRST_SPAWN}
+     */
+    private ArenaSnapshot(String name, int maxPlayers, int waitTimeSeconds,
+                          String[] worlds, double[] coords, float[] angles, int[] spawnNumbers) {
+        this.name = name;
+        this.maxPlayers = maxPlayers;
+        this.waitTimeSeconds = waitTimeSeconds;
+        this.worlds = worlds;
+        this.coords = coords;
+        this.angles = angles;
+        this.spawnNumbers = spawnNumbers;
+
+        if (worlds[POS1] != null && worlds[POS1].equals(worlds[POS2])) {
+            this.boundsWorld = worlds[POS1];
+            int x1 = floor(coords[POS1 * 3]);
+            int y1 = floor(coords[POS1 * 3 + 1]);
+            int z1 = floor(coords[POS1 * 3 + 2]);
+            int x2 = floor(coords[POS2 * 3]);
+            int y2 = floor(coords[POS2 * 3 + 1]);
+            int z2 = floor(coords[POS2 * 3 + 2]);
+            this.minX = Math.min(x1, x2);
+            this.minY = Math.min(y1, y2);
+            this.minZ = Math.min(z1, z2);
+            this.maxX = Math.max(x1, x2);
+            this.maxY = Math.max(y1, y2);
+            this.maxZ = Math.max(z1, z2);
+        } else {
+            this.boundsWorld = null;
+            this.minX = 0;
+            this.minY = 0;
+            this.minZ = 0;
+            this.maxX = -1;
+            this.maxY = -1;
+            this.maxZ = -1;
+        }
+    }
+
+    /**
+     * Create a snapshot from Bukkit locations
+     * @param name Arena name
+     * @param maxPlayers Max players
+     * @param waitTimeSeconds Wait time in seconds
+     * @param pos1 Position 1, or null
+     * @param pos2 Position 2, or null
+     * @param center Center location, or null
+     * @param spawnPoints Spawn points
+     * @return Snapshot
+     */
+    public static ArenaSnapshot of(String name, int maxPlayers, int waitTimeSeconds,
+                                   Location pos1, Location pos2, Location center, Map<Integer, Location> spawnPoints) {
+        Builder builder = new Builder(name).maxPlayers(maxPlayers).waitTimeSeconds(waitTimeSeconds)
+                .set(POS1, pos1).set(POS2, pos2).set(CENTER, center);
+        for (Map.Entry<Integer, Location> entry : spawnPoints.entrySet()) {
+            builder.spawnPoint(entry.getKey(), entry.getValue());
+        }
+        return builder.build();
+    }
+
+    private static int floor(double value) {
+        int floor = (int) value;
+        return value < floor ? floor - 1 : floor;
+    }
+
+    ArenaSnapshot withPos1(Location pos1) {
+        return withSlot(POS1, pos1);
+    }
+
+    ArenaSnapshot withPos2(Location pos2) {
+        return withSlot(POS2, pos2);
+    }
+
+    ArenaSnapshot withCenter(Location center) {
+        return withSlot(CENTER, center);
+    }
+
+    ArenaSnapshot withMaxPlayers(int maxPlayers) {
+        return new ArenaSnapshot(name, maxPlayers, waitTimeSeconds, worlds, coords, angles, spawnNumbers);
+    }
+
+    ArenaSnapshot withWaitTimeSeconds(int waitTimeSeconds) {
+        return new ArenaSnapshot(name, maxPlayers, waitTimeSeconds, worlds, coords, angles, spawnNumbers);
+    }
+
+    ArenaSnapshot withSpawnPoint(int number, Location location) {
+        Builder builder = toBuilder();
+        builder.spawnPoint(number, location);
+        return builder.build();
+    }
+
+    private ArenaSnapshot withSlot(int slot, Location location) {
+        String[] newWorlds = worlds.clone();
+        double[] newCoords = coords.clone();
+        float[] newAngles = angles.clone();
+        write(newWorlds, newCoords, newAngles, slot, location);
+        return new ArenaSnapshot(name, maxPlayers, waitTimeSeconds, newWorlds, newCoords, newAngles, spawnNumbers);
+    }
+
+    private static void write(String[] worlds, double[] coords, float[] angles, int slot, Location location) {
+        World world = location != null ? location.getWorld() : null;
+        if (world == null) {
+            worlds[slot] = null;
+            return;
+        }
+        write(worlds, coords, angles, slot, world.getName(), location.getX(), location.getY(), location.getZ(),
+                location.getYaw(), location.getPitch());
+    }
+
+    private static void write(String[] worlds, double[] coords, float[] angles, int slot,
+                              String world, double x, double y, double z, float yaw, float pitch) {
+        worlds[slot] = world != null ? world.intern() : null;
+        coords[slot * 3] = x;
+        coords[slot * 3 + 1] = y;
+        coords[slot * 3 + 2] = z;
+        angles[slot * 2] = yaw;
+        angles[slot * 2 + 1] = pitch;
+    }
+
+    /**
+     * Create a copy of this snapshot under another name, with every set location moved by an offset into one world
+     * @param newName Name of the copy
+     * @param world World every set location is placed in
+     * @param dx X offset
+     * @param dy Y offset
+     * @param dz Z offset
+     * @return Moved copy
+     */
+    public ArenaSnapshot relocate(String newName, String world, double dx, double dy, double dz) {
+        String target = world.intern();
+        String[] newWorlds = new String[worlds.length];
+        double[] newCoords = coords.clone();
+        for (int slot = 0; slot < worlds.length; slot++) {
+            if (worlds[slot] != null) {
+                newWorlds[slot] = target;
+                newCoords[slot * 3] += dx;
+                newCoords[slot * 3 + 1] += dy;
+                newCoords[slot * 3 + 2] += dz;
+            }
+        }
+        return new ArenaSnapshot(newName, maxPlayers, waitTimeSeconds, newWorlds, newCoords, angles, spawnNumbers);
+    }
+
+    /**
+     * Create a builder holding the values of this snapshot
+     * @return Builder
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder(name).maxPlayers(maxPlayers).waitTimeSeconds(waitTimeSeconds);
+        for (int slot = 0; slot < FIRST_SPAWN; slot++) {
+            if (isSet(slot)) {
+                builder.set(slot, worlds[slot], getX(slot), getY(slot), getZ(slot), getYaw(slot), getPitch(slot));
+            }
+        }
+        for (int i = 0; i < spawnNumbers.length; i++) {
+            int slot = FIRST_SPAWN + i;
+            if (isSet(slot)) {
+                builder.spawnPoint(spawnNumbers[i], worlds[slot], getX(slot), getY(slot), getZ(slot), getYaw(slot), getPitch(slot));
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Get arena name
+     * @return Arena name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get max players
+     * @return Max players
+     */
+    public int getMaxPlayers() {
+        return maxPlayers;
+    }
+
+    /**
+     * Get wait time in seconds
+     * @return Wait time in seconds
+     */
+    public int getWaitTimeSeconds() {
+        return waitTimeSeconds;
+    }
+
+    /**
+     * Get position 1
+     * @return New location, or null if not set or its world is not loaded
+     */
+    public Location getPos1() {
+        return toLocation(POS1);
+    }
+
+    /**
+     * Get position 2
+     * @return New location, or null if not set or its world is not loaded
+     */
+    public Location getPos2() {
+        return toLocation(POS2);
+    }
+
+    /**
+     * Get center location
+     * @return New location, or null if not set or its world is not loaded
+     */
+    public Location getCenter() {
+        return toLocation(CENTER);
+    }
+
+    /**
+     * Get spawn points, ordered by number. Spawn points in worlds that are not loaded are left out.
+     * The map is built on first use and kept until a world loads or unloads, so repeated calls do not allocate.
+     * @return Unmodifiable map of spawn point numbers to locations, shared between callers so the locations must not be modified
+     */
+    public Map<Integer, Location> getSpawnPoints() {
+        long generation = WorldRegistry.getGeneration();
+        SpawnPoints cached = spawnPoints;
+        if (cached != null && cached.generation == generation) {
+            return cached.locations;
+        }
+
+        Map<Integer, Location> spawns = new TreeMap<>();
+        for (int i = 0; i < spawnNumbers.length; i++) {
+            Location location = toLocation(FIRST_SPAWN + i);
+            if (location != null) {
+                spawns.put(spawnNumbers[i], location);
+            }
+        }
+        cached = new SpawnPoints(generation, Collections.unmodifiableMap(spawns));
+        spawnPoints = cached;
+        return cached.locations;
+    }
+
+    /**
+     * Get a single spawn point
+     * @param number Spawn point number
+     * @return New location, or null if not set or its world is not loaded
+     */
+    public Location getSpawnPoint(int number) {
+        int index = Arrays.binarySearch(spawnNumbers, number);
+        return index >= 0 ? toLocation(FIRST_SPAWN + index) : null;
+    }
+
+    /**
+     * Get the number of spawn points
+     * @return Spawn point count
+     */
+    public int getSpawnPointCount() {
+        return spawnNumbers.length;
+    }
+
+    /**
+     * Get the number of the n-th spawn point
+     * @param index Spawn point index, from 0 to {@link #getSpawnPointCount()} - 1; its slot is {@link #FIRST_SPAWN} + index
+     * @return Spawn point number
+     */
+    public int getSpawnPointNumber(int index) {
+        return spawnNumbers[index];
+    }
+
+    /**
+     * Create a Bukkit location for a slot
+     * @param slot Slot
+     * @return New location, or null if not set or its world is not loaded
+     */
+    public Location toLocation(int slot) {
+        String worldName = worlds[slot];
+        World world = worldName != null ? WorldRegistry.resolve(worldName) : null;
+        if (world == null) {
+            return null;
+        }
+        return new Location(world, coords[slot * 3], coords[slot * 3 + 1], coords[slot * 3 + 2], angles[slot * 2], angles[slot * 2 + 1]);
+    }
+
+    /**
+     * Check if a slot holds a location
+     * @param slot Slot
+     * @return True if set, even if its world is not loaded
+     */
+    public boolean isSet(int slot) {
+        return worlds[slot] != null;
+    }
+
+    /**
+     * Get the world name of a slot
+     * @param slot Slot
+     * @return World name, or null if not set
+     */
+    public String getWorldName(int slot) {
+        return worlds[slot];
+    }
+
+    /**
+     * Get the X coordinate of a slot
+     * @param slot Slot
+     * @return X
+     */
+    public double getX(int slot) {
+        return coords[slot * 3];
+    }
+
+    /**
+     * Get the Y coordinate of a slot
+     * @param slot Slot
+     * @return Y
+     */
+    public double getY(int slot) {
+        return coords[slot * 3 + 1];
+    }
+
+    /**
+     * Get the Z coordinate of a slot
+     * @param slot Slot
+     * @return Z
+     */
+    public double getZ(int slot) {
+        return coords[slot * 3 + 2];
+    }
+
+    /**
+     * Get the yaw of a slot
+     * @param slot Slot
+     * @return Yaw
+     */
+    public float getYaw(int slot) {
+        return angles[slot * 2];
+    }
+
+    /**
+     * Get the pitch of a slot
+     * @param slot Slot
+     * @return Pitch
+     */
+    public float getPitch(int slot) {
+        return angles[slot * 2 + 1];
+    }
+
+    /**
+     * Check if both positions are set in the same world
+     * @return True if the arena has block bounds
+     */
+    public boolean hasBounds() {
+        return boundsWorld != null;
+    }
+
+    /**
+     * Get the world of the arena bounds
+     * @return World name, or null if the arena has no bounds
+     */
+    public String getBoundsWorld() {
+        return boundsWorld;
+    }
+
+    /**
+     * Get the minimum block X of the bounds
+     * @return Minimum block X
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    /**
+     * Get the minimum block Y of the bounds
+     * @return Minimum block Y
+     */
+    public int getMinY() {
+        return minY;
+    }
+
+    /**
+     * Get the minimum block Z of the bounds
+     * @return Minimum block Z
+     */
+    public int getMinZ() {
+        return minZ;
+    }
+
+    /**
+     * Get the maximum block X of the bounds
+     * @return Maximum block X
+     */
+    public int getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * Get the maximum block Y of the bounds
+     * @return Maximum block Y
+     */
+    public int getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Get the maximum block Z of the bounds
+     * @return Maximum block Z
+     */
+    public int getMaxZ() {
+        return maxZ;
+    }
+
+    /**
+     * Check if a block lies inside the arena bounds
+     * @param world World name
+     * @param x Block X
+     * @param y Block Y
+     * @param z Block Z
+     * @return True if inside
+     */
+    public boolean contains(String world, int x, int y, int z) {
+        return boundsWorld != null && x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ
+                && boundsWorld.equals(world);
+    }
+
+    /**
+     * Check if the bounds of this snapshot differ from another one
+     * @param other Other snapshot
+     * @return True if the bounds world or any bound differs
+     */
+    public boolean boundsDiffer(ArenaSnapshot other) {
+        return !Objects.equals(boundsWorld, other.boundsWorld) || minX != other.minX || minY != other.minY || minZ != other.minZ
+                || maxX != other.maxX || maxY != other.maxY || maxZ != other.maxZ;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ArenaSnapshot)) {
+            return false;
+        }
+
+        ArenaSnapshot other = (ArenaSnapshot) obj;
+        if (maxPlayers != other.maxPlayers || waitTimeSeconds != other.waitTimeSeconds || !name.equals(other.name)
+                || !Arrays.equals(spawnNumbers, other.spawnNumbers)) {
+            return false;
+        }
+        for (int slot = 0; slot < worlds.length; slot++) {
+            if (!Objects.equals(worlds[slot], other.worlds[slot])) {
+                return false;
+            }
+            // Unset slots may hold stale coordinates
+            if (worlds[slot] != null && (getX(slot) != other.getX(slot) || getY(slot) != other.getY(slot) || getZ(slot) != other.getZ(slot)
+                    || getYaw(slot) != other.getYaw(slot) || getPitch(slot) != other.getPitch(slot))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, maxPlayers, waitTimeSeconds, boundsWorld, minX, minY, minZ, maxX, maxY, maxZ)
+                * 31 + Arrays.hashCode(spawnNumbers);
+    }
+
+    /**
+     * Collects arena values before packing them into a snapshot
+     */
+    public static final class Builder {
+        private final String name;
+        private final Map<Integer, Integer> spawnSlots;
+        private int maxPlayers;
+        private int waitTimeSeconds;
+        private String[] worlds;
+        private double[] coords;
+        private float[] angles;
+
+        /**
+         * Create a new builder
+         * @param name Arena name
+         */
+        public Builder(String name) {
+            this.name = name;
+            this.spawnSlots = new TreeMap<>();
+            this.waitTimeSeconds = 10;
+            this.worlds = new String[FIRST_SPAWN];
+            this.coords = new double[FIRST_SPAWN * 3];
+            this.angles = new float[FIRST_SPAWN * 2];
+        }
+
+        /**
+         * Set max players
+         * @param maxPlayers Max players
+         * @return This builder
+         */
+        public Builder maxPlayers(int maxPlayers) {
+            this.maxPlayers = maxPlayers;
+            return this;
+        }
+
+        /**
+         * Set wait time
+         * @param waitTimeSeconds Wait time in seconds
+         * @return This builder
+         */
+        public Builder waitTimeSeconds(int waitTimeSeconds) {
+            this.waitTimeSeconds = waitTimeSeconds;
+            return this;
+        }
+
+        /**
+         * Set position 1, position 2 or the center from a Bukkit location
+         * @param slot {@link #POS1}, {@link #POS2} or {@link #CENTER}
+         * @param location Location, or null to unset
+         * @return This builder
+         */
+        public Builder set(int slot, Location location) {
+            write(worlds, coords, angles, slot, location);
+            return this;
+        }
+
+        /**
+         * Set position 1, position 2 or the center
+         * @param slot {@link #POS1}, {@link #POS2} or {@link #CENTER}
+         * @param world World name
+         * @param x X
+         * @param y Y
+         * @param z Z
+         * @param yaw Yaw
+         * @param pitch Pitch
+         * @return This builder
+         */
+        public Builder set(int slot, String world, double x, double y, double z, float yaw, float pitch) {
+            write(worlds, coords, angles, slot, world, x, y, z, yaw, pitch);
+            return this;
+        }
+
+        /**
+         * Set a spawn point from a Bukkit location
+         * @param number Spawn point number
+         * @param location Location, or null to leave the spawn point unset
+         * @return This builder
+         */
+        public Builder spawnPoint(int number, Location location) {
+            int slot = spawnSlot(number);
+            write(worlds, coords, angles, slot, location);
+            return this;
+        }
+
+        /**
+         * Set a spawn point
+         * @param number Spawn point number
+         * @param world World name
+         * @param x X
+         * @param y Y
+         * @param z Z
+         * @param yaw Yaw
+         * @param pitch Pitch
+         * @return This builder
+         */
+        public Builder spawnPoint(int number, String world, double x, double y, double z, float yaw, float pitch) {
+            int slot = spawnSlot(number);
+            write(worlds, coords, angles, slot, world, x, y, z, yaw, pitch);
+            return this;
+        }
+
+        private int spawnSlot(int number) {
+            Integer slot = spawnSlots.get(number);
+            if (slot != null) {
+                return slot;
+            }
+
+            slot = worlds.length;
+            spawnSlots.put(number, slot);
+            worlds = Arrays.copyOf(worlds, slot + 1);
+            coords = Arrays.copyOf(coords, (slot + 1) * 3);
+            angles = Arrays.copyOf(angles, (slot + 1) * 2);
+            return slot;
+        }
+
+        /**
+         * Pack the collected values into a snapshot
+         * @return Snapshot
+         */
+        public ArenaSnapshot build() {
+            // Spawn points are stored in ascending number order so they can be binary searched
+            int count = spawnSlots.size();
+            String[] packedWorlds = new String[FIRST_SPAWN + count];
+            double[] packedCoords = new double[(FIRST_SPAWN + count) * 3];
+            float[] packedAngles = new float[(FIRST_SPAWN + count) * 2];
+            int[] numbers = new int[count];
+            System.arraycopy(worlds, 0, packedWorlds, 0, FIRST_SPAWN);
+            System.arraycopy(coords, 0, packedCoords, 0, FIRST_SPAWN * 3);
+            System.arraycopy(angles, 0, packedAngles, 0, FIRST_SPAWN * 2);
+
+            int index = 0;
+            for (Map.Entry<Integer, Integer> entry : spawnSlots.entrySet()) {
+                int from = entry.getValue();
+                int to = FIRST_SPAWN + index;
+                numbers[index] = entry.getKey();
+                packedWorlds[to] = worlds[from];
+                System.arraycopy(coords, from * 3, packedCoords, to * 3, 3);
+                System.arraycopy(angles, from * 2, packedAngles, to * 2, 2);
+                index++;
+            }
+            return new ArenaSnapshot(name, maxPlayers, waitTimeSeconds, packedWorlds, packedCoords, packedAngles, numbers);
+        }
+    }
+
+    /**
+     * Spawn point locations resolved while a given set of worlds was loaded
+     */
+    private static final class SpawnPoints {
+        private final long generation;
+        private final Map<Integer, Location> locations;
+
+        private SpawnPoints(long generation, Map<Integer, Location> locations) {
+            this.generation = generation;
+            this.locations = locations;
+        }
+    }
+}
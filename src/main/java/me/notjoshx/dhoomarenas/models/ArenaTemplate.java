@@ -0,0 +1,126 @@
+package me.notjoshx.dhoomarenas.models;
+
+/**
+ * A map that many arena instances are stamped out from.
+ * The template points at a regular source arena; its region, center and spawn points are taken relative to
+ * the minimum corner of the source region, and instances are placed in a configured world starting at a configured origin.
+ */
+public final class ArenaTemplate {
+    private final String name;
+    private final String sourceArena;
+    private final String world;
+    private final int originX;
+    private final int originY;
+    private final int originZ;
+    private final int spacing;
+    private final int poolSize;
+
+    /**
+     * Create a new template
+     * @param name Template name, also the prefix of its instance names
+     * @param sourceArena Name of the arena instances are copied from
+     * @param world World instances are placed in
+     * @param originX X of the minimum corner of instance 0
+     * @param originY Y of the minimum corner of every instance
+     * @param originZ Z of the minimum corner of every instance
+     * @param spacing Blocks between the origins of neighbouring instances along X
+     * @param poolSize Instances kept built and reset, ready to hand out
+     */
+    public ArenaTemplate(String name, String sourceArena, String world, int originX, int originY, int originZ, int spacing, int poolSize) {
+        this.name = name;
+        this.sourceArena = sourceArena;
+        this.world = world;
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+        this.spacing = spacing;
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Get template name
+     * @return Template name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the name of the arena instances are copied from
+     * @return Source arena name
+     */
+    public String getSourceArena() {
+        return sourceArena;
+    }
+
+    /**
+     * Get the world instances are placed in
+     * @return World name
+     */
+    public String getWorld() {
+        return world;
+    }
+
+    /**
+     * Get X of the minimum corner of instance 0
+     * @return Origin X
+     */
+    public int getOriginX() {
+        return originX;
+    }
+
+    /**
+     * Get Y of the minimum corner of every instance
+     * @return Origin Y
+     */
+    public int getOriginY() {
+        return originY;
+    }
+
+    /**
+     * Get Z of the minimum corner of every instance
+     * @return Origin Z
+     */
+    public int getOriginZ() {
+        return originZ;
+    }
+
+    /**
+     * Get the blocks between the origins of neighbouring instances
+     * @return Spacing along X
+     */
+    public int getSpacing() {
+        return spacing;
+    }
+
+    /**
+     * Get the number of instances kept ready
+     * @return Pool size
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Get the name of an instance
+     * @param index Instance index
+     * @return Instance name
+     */
+    public String getInstanceName(int index) {
+        return name + "#" + index;
+    }
+
+    /**
+     * Place an instance of the source arena. Instance 0 has its minimum corner at the origin,
+     * and every further instance sits one more spacing along X.
+     * @param source Current snapshot of the source arena, which must have its region set
+     * @param index Instance index
+     * @return Snapshot of the instance
+     */
+    public ArenaSnapshot instantiate(ArenaSnapshot source, int index) {
+        double offsetX = originX + (long) index * spacing - source.getMinX();
+        double offsetY = originY - source.getMinY();
+        double offsetZ = originZ - source.getMinZ();
+        return source.relocate(getInstanceName(index), world, offsetX, offsetY, offsetZ);
+    }
+}
@@ -0,0 +1,134 @@
+package me.notjoshx.dhoomarenas.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Result of checking whether an arena can be played: position 1 and 2 in one world, a center,
+ * max players, spawn points 1 to max players, and every world it uses loaded.
+ * Immutable, and tied to the snapshot and world generation it was computed from, so it is safe to share between threads.
+ */
+public final class ArenaValidation {
+    private final ArenaSnapshot snapshot;
+    private final long worldGeneration;
+    private final List<String> problems;
+
+    private ArenaValidation(ArenaSnapshot snapshot, long worldGeneration, List<String> problems) {
+        this.snapshot = snapshot;
+        this.worldGeneration = worldGeneration;
+        this.problems = problems;
+    }
+
+    /**
+     * Check an arena snapshot. Safe to call from any thread.
+     * @param snapshot Arena snapshot
+     * @return Validation result
+     */
+    public static ArenaValidation of(ArenaSnapshot snapshot) {
+        // Read the generation first, so a world loading during the check makes the result stale rather than wrong
+        long worldGeneration = WorldRegistry.getGeneration();
+        List<String> problems = new ArrayList<>(0);
+        Set<String> worlds = new LinkedHashSet<>();
+
+        checkSlot(snapshot, ArenaSnapshot.POS1, "Position 1", problems, worlds);
+        checkSlot(snapshot, ArenaSnapshot.POS2, "Position 2", problems, worlds);
+        if (snapshot.isSet(ArenaSnapshot.POS1) && snapshot.isSet(ArenaSnapshot.POS2) && !snapshot.hasBounds()) {
+            problems.add("Position 1 and 2 are in different worlds");
+        }
+        checkSlot(snapshot, ArenaSnapshot.CENTER, "Center", problems, worlds);
+
+        int maxPlayers = snapshot.getMaxPlayers();
+        if (maxPlayers <= 0) {
+            problems.add("Max players not set");
+        }
+
+        // Spawn numbers are sorted, so a single pass finds every missing number up to max players
+        int index = 0;
+        int count = snapshot.getSpawnPointCount();
+        List<Integer> missing = new ArrayList<>(0);
+        for (int number = 1; number <= maxPlayers; number++) {
+            while (index < count && snapshot.getSpawnPointNumber(index) < number) {
+                index++;
+            }
+            // A journaled removal can leave a spawn point without a location, which counts as not set
+            if (index < count && snapshot.getSpawnPointNumber(index) == number && snapshot.isSet(ArenaSnapshot.FIRST_SPAWN + index)) {
+                worlds.add(snapshot.getWorldName(ArenaSnapshot.FIRST_SPAWN + index));
+            } else {
+                missing.add(number);
+            }
+        }
+        if (!missing.isEmpty()) {
+            problems.add("Spawn point" + (missing.size() > 1 ? "s " : " ") + joinNumbers(missing) + " not set");
+        }
+
+        for (String world : worlds) {
+            if (WorldRegistry.resolve(world) == null) {
+                problems.add("World " + world + " is not loaded");
+            }
+        }
+
+        return new ArenaValidation(snapshot, worldGeneration, problems.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(problems));
+    }
+
+    private static void checkSlot(ArenaSnapshot snapshot, int slot, String label, List<String> problems, Set<String> worlds) {
+        if (snapshot.isSet(slot)) {
+            worlds.add(snapshot.getWorldName(slot));
+        } else {
+            problems.add(label + " not set");
+        }
+    }
+
+    private static String joinNumbers(List<Integer> numbers) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < numbers.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(numbers.get(i));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Check if this result still describes an arena
+     * @param current The arena's current snapshot
+     * @return True if neither the arena nor the loaded worlds changed since it was computed
+     */
+    boolean isCurrent(ArenaSnapshot current) {
+        return snapshot == current && worldGeneration == WorldRegistry.getGeneration();
+    }
+
+    /**
+     * @return Arena name
+     */
+    public String getArenaName() {
+        return snapshot.getName();
+    }
+
+    /**
+     * Get the snapshot that was checked
+     * @return Arena snapshot
+     */
+    public ArenaSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Check if the arena can be played
+     * @return True if there are no problems
+     */
+    public boolean isReady() {
+        return problems.isEmpty();
+    }
+
+    /**
+     * Get everything that keeps the arena from being played
+     * @return Unmodifiable list of problem descriptions, empty if the arena is ready
+     */
+    public List<String> getProblems() {
+        return problems;
+    }
+}
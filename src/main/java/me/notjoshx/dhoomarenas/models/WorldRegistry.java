@@ -0,0 +1,83 @@
+package me.notjoshx.dhoomarenas.models;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.World;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loaded worlds by name, used to turn stored arena locations into Bukkit locations.
+ * Kept up to date from world load and unload events, so lookups are safe from any thread.
+ */
+public final class WorldRegistry {
+    private static final Map<String, World> WORLDS = new ConcurrentHashMap<>();
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private WorldRegistry() {
+    }
+
+    /**
+     * Get a loaded world by name
+     * @param name World name
+     * @return World, or null if it is not loaded
+     */
+    public static World resolve(String name) {
+        World world = WORLDS.get(name);
+        if (world != null) {
+            return world;
+        }
+
+        // Worlds loaded before the registry was filled, e.g. when arenas are built outside the plugin
+        Server server = Bukkit.getServer();
+        world = server != null ? server.getWorld(name) : null;
+        if (world != null) {
+            WORLDS.put(name, world);
+        }
+        return world;
+    }
+
+    /**
+     * Register a world that has been loaded
+     * @param world World
+     */
+    public static void register(World world) {
+        WORLDS.put(world.getName(), world);
+        GENERATION.incrementAndGet();
+    }
+
+    /**
+     * Forget a world that is being unloaded
+     * @param world World
+     */
+    public static void unregister(World world) {
+        WORLDS.remove(world.getName(), world);
+        GENERATION.incrementAndGet();
+    }
+
+    /**
+     * Forget every world
+     */
+    public static void clear() {
+        WORLDS.clear();
+        GENERATION.incrementAndGet();
+    }
+
+    /**
+     * Mark results that depend on which worlds are loaded as stale, e.g. once an unloading world is actually gone
+     */
+    public static void invalidate() {
+        GENERATION.incrementAndGet();
+    }
+
+    /**
+     * Get a counter that changes whenever a world is registered or unregistered,
+     * so results that depend on which worlds are loaded can tell when they are stale
+     * @return World generation
+     */
+    public static long getGeneration() {
+        return GENERATION.get();
+    }
+}
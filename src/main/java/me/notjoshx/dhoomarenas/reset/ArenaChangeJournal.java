@@ -0,0 +1,114 @@
+package me.notjoshx.dhoomarenas.reset;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.bukkit.block.data.BlockData;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Journal of the blocks changed in an arena while it is active.
+ * Only the original state of each touched position is kept, so replaying the journal restores exactly
+ * the blocks players changed. Must only be used from the main thread.
+ */
+public class ArenaChangeJournal {
+    private final String world;
+    private final Long2ObjectMap<BlockData> originals;
+    private final Map<BlockData, BlockData> states;
+
+    /**
+     * Create a new, empty journal
+     * @param world Name of the world the arena is in
+     */
+    public ArenaChangeJournal(String world) {
+        this.world = world;
+        this.originals = new Long2ObjectOpenHashMap<>();
+        this.states = new HashMap<>();
+    }
+
+    /**
+     * Record the state a position had before its first change. Later changes to the same position are ignored.
+     * @param x Block X
+     * @param y Block Y
+     * @param z Block Z
+     * @param original Block state before the change
+     */
+    public void record(int x, int y, int z, BlockData original) {
+        long key = pack(x, y, z);
+        if (!originals.containsKey(key)) {
+            // Share identical states between positions to keep the journal small
+            originals.put(key, states.computeIfAbsent(original, state -> state));
+        }
+    }
+
+    /**
+     * Get the number of changed positions
+     * @return Dirty block count
+     */
+    public int size() {
+        return originals.size();
+    }
+
+    /**
+     * Get the name of the world the arena is in
+     * @return World name
+     */
+    public String getWorld() {
+        return world;
+    }
+
+    /**
+     * Get the recorded positions and their original states
+     * @return Original states keyed by packed position, see {@link #unpackX(long)}
+     */
+    public Long2ObjectMap<BlockData> getOriginals() {
+        return originals;
+    }
+
+    /**
+     * Forget every recorded change
+     */
+    public void clear() {
+        originals.clear();
+        states.clear();
+    }
+
+    /**
+     * Pack a block position into a long, 26 bits for X and Z and 12 bits for Y
+     * @param x Block X
+     * @param y Block Y
+     * @param z Block Z
+     * @return Packed position
+     */
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    /**
+     * Get the block X of a packed position
+     * @param packed Packed position
+     * @return Block X
+     */
+    public static int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    /**
+     * Get the block Y of a packed position
+     * @param packed Packed position
+     * @return Block Y
+     */
+    public static int unpackY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    /**
+     * Get the block Z of a packed position
+     * @param packed Packed position
+     * @return Block Z
+     */
+    public static int unpackZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+}
@@ -0,0 +1,412 @@
+package me.notjoshx.dhoomarenas.reset;
+
+import me.notjoshx.dhoomarenas.DhoomArenas;
+import me.notjoshx.dhoomarenas.managers.ArenaWarmupManager;
+import me.notjoshx.dhoomarenas.models.Arena;
+import me.notjoshx.dhoomarenas.models.ArenaSnapshot;
+import me.notjoshx.dhoomarenas.scheduler.WorkPriority;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.DoubleConsumer;
+import java.util.logging.Level;
+
+/**
+ * Captures arena regions into {@link RegionSnapshot}s and restores them incrementally across ticks.
+ * Snapshots are kept off-heap while loaded and written to the snapshots folder so they survive restarts.
+ * While an arena is tracked, changed blocks are recorded in an {@link ArenaChangeJournal} so a reset only
+ * has to touch the blocks that were actually changed.
+ * All methods must be called from the main thread; returned futures complete on the main thread.
+ */
+public class ArenaResetManager {
+    private final DhoomArenas plugin;
+    private final ArenaWarmupManager warmupManager;
+    private final File snapshotsFolder;
+    private final long budgetNanos;
+    private final double deltaThreshold;
+    private final long maxVolume;
+    private final Map<Arena, RegionSnapshot> snapshots;
+    private final Map<Arena, ArenaChangeJournal> journals;
+    private final Map<Arena, ResetTask> running;
+    private final Executor asyncExecutor;
+    private final Executor mainExecutor;
+
+    /**
+     * Create a new reset manager
+     * @param plugin Plugin instance
+     * @param warmupManager Warm-up manager used to keep chunks loaded while restoring
+     * @param budgetMillis Milliseconds per tick that one reset may spend restoring blocks, within the scheduler's budget
+     * @param deltaThreshold Fraction of an arena's volume above which a full reset is used instead of the journal
+     * @param maxVolume Most blocks a captured region may hold; each takes two bytes of off-heap memory
+     */
+    public ArenaResetManager(DhoomArenas plugin, ArenaWarmupManager warmupManager, double budgetMillis, double deltaThreshold,
+                             long maxVolume) {
+        this.plugin = plugin;
+        this.warmupManager = warmupManager;
+        this.snapshotsFolder = new File(plugin.getDataFolder(), "snapshots");
+        this.budgetNanos = (long) (Math.max(0.1D, budgetMillis) * 1_000_000L);
+        this.deltaThreshold = deltaThreshold;
+        this.maxVolume = Math.max(1L, maxVolume);
+        this.snapshots = new ConcurrentHashMap<>();
+        this.journals = new HashMap<>();
+        this.running = new HashMap<>();
+        this.asyncExecutor = runnable -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, runnable);
+        this.mainExecutor = runnable -> plugin.getServer().getScheduler().runTask(plugin, runnable);
+    }
+
+    /**
+     * Capture the current blocks of an arena's region, replacing any earlier snapshot
+     * @param arena Arena to capture
+     * @return Future completing once the snapshot has been taken and written to disk
+     */
+    public CompletableFuture<Void> capture(Arena arena) {
+        Location pos1 = arena.getPos1();
+        Location pos2 = arena.getPos2();
+        if (pos1 == null || pos2 == null || pos1.getWorld() == null || pos1.getWorld() != pos2.getWorld()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Arena " + arena.getName() + " has no region set"));
+        }
+
+        World world = pos1.getWorld();
+        int minX = Math.min(pos1.getBlockX(), pos2.getBlockX());
+        int minY = Math.max(world.getMinHeight(), Math.min(pos1.getBlockY(), pos2.getBlockY()));
+        int minZ = Math.min(pos1.getBlockZ(), pos2.getBlockZ());
+        int maxX = Math.max(pos1.getBlockX(), pos2.getBlockX());
+        int maxY = Math.min(world.getMaxHeight() - 1, Math.max(pos1.getBlockY(), pos2.getBlockY()));
+        int maxZ = Math.max(pos1.getBlockZ(), pos2.getBlockZ());
+        long volume = ((long) maxX - minX + 1) * ((long) maxY - minY + 1) * ((long) maxZ - minZ + 1);
+        if (volume > maxVolume) {
+            // Refuse before loading any chunk or reserving memory for the blocks
+            return CompletableFuture.failedFuture(new IllegalStateException("Arena " + arena.getName() + " region has " + volume
+                    + " blocks, more than the " + maxVolume + " allowed by reset.max-volume"));
+        }
+
+        // Chunk snapshots are taken on the main thread as each chunk finishes loading
+        Map<Long, ChunkSnapshot> chunks = new ConcurrentHashMap<>();
+        List<CompletableFuture<?>> loads = new ArrayList<>();
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                long key = RegionSnapshot.chunkKey(chunkX, chunkZ);
+                loads.add(world.getChunkAtAsync(chunkX, chunkZ)
+                        .thenAccept(chunk -> chunks.put(key, chunk.getChunkSnapshot(false, false, false))));
+            }
+        }
+
+        File file = getSnapshotFile(arena);
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0]))
+                .thenApplyAsync(ignored -> {
+                    RegionSnapshot snapshot = RegionSnapshot.capture(world.getName(), minX, minY, minZ, maxX, maxY, maxZ, chunks);
+                    try {
+                        snapshotsFolder.mkdirs();
+                        snapshot.write(file);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return snapshot;
+                }, asyncExecutor)
+                .thenAcceptAsync(snapshot -> snapshots.put(arena, snapshot), mainExecutor);
+    }
+
+    /**
+     * Restore an arena's region from its snapshot, spreading the work over ticks within a per-tick time budget
+     * @param arena Arena to reset
+     * @param progress Progress callback, called once per tick with a value from 0 to 1, or null
+     * @return Future completing once the whole region has been restored
+     */
+    public CompletableFuture<Void> reset(Arena arena, DoubleConsumer progress) {
+        ResetTask active = running.get(arena);
+        if (active != null) {
+            return active.getFuture();
+        }
+
+        return loadSnapshot(arena).thenCompose(snapshot -> {
+            Location pos1 = arena.getPos1();
+            Location pos2 = arena.getPos2();
+            World world = pos1 != null ? pos1.getWorld() : null;
+            if (world == null || pos2 == null || pos2.getWorld() != world) {
+                throw new IllegalStateException("Arena " + arena.getName() + " has no region set");
+            }
+            // Bounds are clamped to the world height the same way as when capturing
+            if (!snapshot.covers(world.getName(), Math.min(pos1.getBlockX(), pos2.getBlockX()),
+                    Math.max(world.getMinHeight(), Math.min(pos1.getBlockY(), pos2.getBlockY())),
+                    Math.min(pos1.getBlockZ(), pos2.getBlockZ()), Math.max(pos1.getBlockX(), pos2.getBlockX()),
+                    Math.min(world.getMaxHeight() - 1, Math.max(pos1.getBlockY(), pos2.getBlockY())),
+                    Math.max(pos1.getBlockZ(), pos2.getBlockZ()))) {
+                throw new IllegalStateException("Arena " + arena.getName() + " region changed since it was captured");
+            }
+
+            // The full reset covers every change recorded so far
+            ArenaChangeJournal journal = journals.get(arena);
+            if (journal != null) {
+                journal.clear();
+            }
+            return restore(arena, new RegionRestore(world, snapshot, budgetNanos, progress));
+        });
+    }
+
+    /**
+     * Copy the captured blocks of one arena into the region of another, spreading the work over ticks within a per-tick time budget.
+     * The target region is expected to have the same size as the source region.
+     * @param target Arena to paste into
+     * @param source Arena whose captured snapshot is pasted
+     * @param priority Priority on the work scheduler
+     * @return Future completing once the whole region has been pasted
+     */
+    public CompletableFuture<Void> paste(Arena target, Arena source, WorkPriority priority) {
+        ResetTask active = running.get(target);
+        if (active != null) {
+            return active.getFuture();
+        }
+
+        return loadSnapshot(source).thenCompose(snapshot -> {
+            ArenaSnapshot from = source.getSnapshot();
+            ArenaSnapshot to = target.getSnapshot();
+            World world = to.hasBounds() ? plugin.getServer().getWorld(to.getBoundsWorld()) : null;
+            if (world == null || !from.hasBounds() || !from.getBoundsWorld().equals(snapshot.getWorld())) {
+                throw new IllegalStateException("Arena " + target.getName() + " has no region to paste " + source.getName() + " into");
+            }
+
+            ArenaChangeJournal journal = journals.get(target);
+            if (journal != null) {
+                journal.clear();
+            }
+            return restore(target, new RegionRestore(world, snapshot, to.getMinX() - from.getMinX(), to.getMinY() - from.getMinY(),
+                    to.getMinZ() - from.getMinZ(), budgetNanos, null), priority);
+        });
+    }
+
+    /**
+     * Undo every block change recorded since tracking started or the last reset.
+     * Falls back to a full {@link #reset(Arena, DoubleConsumer)} when a large part of the arena changed
+     * and a snapshot is available, since walking the whole region is cheaper then.
+     * @param arena Arena to reset
+     * @param progress Progress callback, called once per tick with a value from 0 to 1, or null
+     * @return Future completing once the changes have been undone
+     */
+    public CompletableFuture<Void> resetChanges(Arena arena, DoubleConsumer progress) {
+        ResetTask active = running.get(arena);
+        if (active != null) {
+            return active.getFuture();
+        }
+
+        ArenaChangeJournal journal = journals.get(arena);
+        if (journal == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Arena " + arena.getName() + " is not being tracked"));
+        }
+
+        long volume = getVolume(arena);
+        if (volume > 0 && journal.size() > volume * deltaThreshold && hasSnapshot(arena)) {
+            return reset(arena, progress);
+        }
+
+        World world = plugin.getServer().getWorld(journal.getWorld());
+        if (world == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("World " + journal.getWorld() + " is not loaded"));
+        }
+        return restore(arena, new JournalRestore(world, journal, budgetNanos, progress));
+    }
+
+    /**
+     * Start recording block changes inside an arena, e.g. when a match starts
+     * @param arena Arena to track
+     * @return True if tracking started, false if the arena has no region set
+     */
+    public boolean startTracking(Arena arena) {
+        if (journals.containsKey(arena)) {
+            return true;
+        }
+
+        Location pos1 = arena.getPos1();
+        Location pos2 = arena.getPos2();
+        if (pos1 == null || pos2 == null || pos1.getWorld() == null || pos1.getWorld() != pos2.getWorld()) {
+            return false;
+        }
+
+        journals.put(arena, new ArenaChangeJournal(pos1.getWorld().getName()));
+        return true;
+    }
+
+    /**
+     * Stop recording block changes inside an arena and forget the recorded changes
+     * @param arena Arena
+     */
+    public void stopTracking(Arena arena) {
+        journals.remove(arena);
+    }
+
+    /**
+     * Check if block changes inside an arena are being recorded
+     * @param arena Arena
+     * @return True if tracked
+     */
+    public boolean isTracking(Arena arena) {
+        return journals.containsKey(arena);
+    }
+
+    /**
+     * Check if any arena is being tracked, so block events outside matches can be skipped cheaply
+     * @return True if at least one arena is tracked
+     */
+    public boolean isTrackingAny() {
+        return !journals.isEmpty();
+    }
+
+    /**
+     * Get the number of blocks changed inside an arena since tracking started or the last reset
+     * @param arena Arena
+     * @return Dirty block count, 0 if the arena is not tracked
+     */
+    public int getDirtyBlockCount(Arena arena) {
+        ArenaChangeJournal journal = journals.get(arena);
+        return journal != null ? journal.size() : 0;
+    }
+
+    /**
+     * Record the state a block had before it was changed
+     * @param arena Arena containing the block
+     * @param x Block X
+     * @param y Block Y
+     * @param z Block Z
+     * @param original Block state before the change
+     */
+    public void recordChange(Arena arena, int x, int y, int z, BlockData original) {
+        ArenaChangeJournal journal = journals.get(arena);
+        if (journal != null) {
+            journal.record(x, y, z, original);
+        }
+    }
+
+    /**
+     * Run a reset task while holding the arena's chunks loaded
+     * @param arena Arena being reset
+     * @param task Reset task
+     * @return Future completing once the task has finished
+     */
+    CompletableFuture<Void> restore(Arena arena, ResetTask task) {
+        return restore(arena, task, WorkPriority.NORMAL);
+    }
+
+    /**
+     * Run a reset task while holding the arena's chunks loaded
+     * @param arena Arena being reset
+     * @param task Reset task
+     * @param priority Priority on the work scheduler
+     * @return Future completing once the task has finished
+     */
+    CompletableFuture<Void> restore(Arena arena, ResetTask task, WorkPriority priority) {
+        ResetTask active = running.get(arena);
+        if (active != null) {
+            return active.getFuture();
+        }
+
+        running.put(arena, task);
+        CompletableFuture<Void> warm = warmupManager.warm(arena);
+        warm.whenComplete((ignored, throwable) -> {
+            if (running.get(arena) == task) {
+                plugin.getScheduler().submit("reset " + arena.getName(), priority, task);
+            }
+        });
+        return task.getFuture().whenComplete((ignored, throwable) -> {
+            running.remove(arena, task);
+            warmupManager.release(arena);
+        });
+    }
+
+    /**
+     * Check if an arena has a captured snapshot
+     * @param arena Arena
+     * @return True if a snapshot is loaded or stored on disk
+     */
+    public boolean hasSnapshot(Arena arena) {
+        return snapshots.containsKey(arena) || getSnapshotFile(arena).isFile();
+    }
+
+    /**
+     * Check if an arena is currently being reset
+     * @param arena Arena
+     * @return True if a reset is running
+     */
+    public boolean isResetting(Arena arena) {
+        return running.containsKey(arena);
+    }
+
+    /**
+     * Forget an arena's snapshot and stop any reset in progress, e.g. because the arena was deleted
+     * @param arena Arena
+     */
+    public void delete(Arena arena) {
+        ResetTask active = running.get(arena);
+        if (active != null) {
+            active.abort();
+        }
+        snapshots.remove(arena);
+        journals.remove(arena);
+        getSnapshotFile(arena).delete();
+    }
+
+    /**
+     * Stop every reset in progress
+     */
+    public void shutdown() {
+        for (ResetTask task : new ArrayList<>(running.values())) {
+            task.abort();
+        }
+        journals.clear();
+    }
+
+    /**
+     * Get an arena's snapshot, reading it from disk off the main thread if it is not loaded
+     * @param arena Arena
+     * @return Future completing on the main thread with the snapshot
+     */
+    private CompletableFuture<RegionSnapshot> loadSnapshot(Arena arena) {
+        RegionSnapshot snapshot = snapshots.get(arena);
+        if (snapshot != null) {
+            return CompletableFuture.completedFuture(snapshot);
+        }
+
+        File file = getSnapshotFile(arena);
+        if (!file.isFile()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Arena " + arena.getName() + " has not been captured"));
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return RegionSnapshot.read(file, maxVolume);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Could not read snapshot of arena " + arena.getName(), e);
+                throw new UncheckedIOException(e);
+            }
+        }, asyncExecutor).thenApplyAsync(loaded -> {
+            snapshots.put(arena, loaded);
+            return loaded;
+        }, mainExecutor);
+    }
+
+    private static long getVolume(Arena arena) {
+        Location pos1 = arena.getPos1();
+        Location pos2 = arena.getPos2();
+        if (pos1 == null || pos2 == null) {
+            return 0L;
+        }
+
+        return (Math.abs((long) pos1.getBlockX() - pos2.getBlockX()) + 1)
+                * (Math.abs((long) pos1.getBlockY() - pos2.getBlockY()) + 1)
+                * (Math.abs((long) pos1.getBlockZ() - pos2.getBlockZ()) + 1);
+    }
+
+    private File getSnapshotFile(Arena arena) {
+        return new File(snapshotsFolder, arena.getName() + ".snapshot");
+    }
+}
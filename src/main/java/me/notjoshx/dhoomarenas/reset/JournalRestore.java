@@ -0,0 +1,57 @@
+package me.notjoshx.dhoomarenas.reset;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * Restores only the positions recorded in an {@link ArenaChangeJournal}
+ */
+public class JournalRestore extends ResetTask {
+    private final World world;
+    private final long[] positions;
+    private final BlockData[] originals;
+
+    /**
+     * Create a new journal restore, taking over the journal's current entries and clearing it.
+     * Must be called from the main thread.
+     * @param world World to restore in
+     * @param journal Journal to replay
+     * @param budgetNanos Nanoseconds per tick that may be spent restoring blocks
+     * @param progress Progress callback, or null
+     */
+    public JournalRestore(World world, ArenaChangeJournal journal, long budgetNanos, DoubleConsumer progress) {
+        super(budgetNanos, progress);
+        this.world = world;
+
+        Long2ObjectMap<BlockData> entries = journal.getOriginals();
+        this.positions = new long[entries.size()];
+        this.originals = new BlockData[entries.size()];
+        int index = 0;
+        for (Long2ObjectMap.Entry<BlockData> entry : entries.long2ObjectEntrySet()) {
+            positions[index] = entry.getLongKey();
+            originals[index] = entry.getValue();
+            index++;
+        }
+        journal.clear();
+    }
+
+    @Override
+    protected int size() {
+        return positions.length;
+    }
+
+    @Override
+    protected void restore(int index) {
+        long position = positions[index];
+        Block block = world.getBlockAt(ArenaChangeJournal.unpackX(position), ArenaChangeJournal.unpackY(position),
+                ArenaChangeJournal.unpackZ(position));
+        BlockData original = originals[index];
+        if (!block.getBlockData().equals(original)) {
+            block.setBlockData(original, false);
+        }
+    }
+}
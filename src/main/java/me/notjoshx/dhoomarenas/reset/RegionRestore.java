@@ -0,0 +1,72 @@
+package me.notjoshx.dhoomarenas.reset;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * Restores a whole region from a {@link RegionSnapshot}, optionally moved by an offset
+ */
+public class RegionRestore extends ResetTask {
+    private final World world;
+    private final RegionSnapshot snapshot;
+    private final int offsetX;
+    private final int offsetY;
+    private final int offsetZ;
+    private final BlockData[] palette;
+
+    /**
+     * Create a new region restore. Must be called from the main thread.
+     * @param world World to restore in
+     * @param snapshot Snapshot to restore
+     * @param budgetNanos Nanoseconds per tick that may be spent restoring blocks
+     * @param progress Progress callback, or null
+     */
+    public RegionRestore(World world, RegionSnapshot snapshot, long budgetNanos, DoubleConsumer progress) {
+        this(world, snapshot, 0, 0, 0, budgetNanos, progress);
+    }
+
+    /**
+     * Create a new region restore that places the snapshot's blocks at an offset, e.g. to paste a copy of an arena.
+     * Must be called from the main thread.
+     * @param world World to restore in
+     * @param snapshot Snapshot to restore
+     * @param offsetX Blocks to move the region along X
+     * @param offsetY Blocks to move the region along Y
+     * @param offsetZ Blocks to move the region along Z
+     * @param budgetNanos Nanoseconds per tick that may be spent restoring blocks
+     * @param progress Progress callback, or null
+     */
+    public RegionRestore(World world, RegionSnapshot snapshot, int offsetX, int offsetY, int offsetZ,
+                         long budgetNanos, DoubleConsumer progress) {
+        super(budgetNanos, progress);
+        this.world = world;
+        this.snapshot = snapshot;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.offsetZ = offsetZ;
+
+        String[] states = snapshot.getPalette();
+        this.palette = new BlockData[states.length];
+        for (int i = 0; i < states.length; i++) {
+            palette[i] = Bukkit.createBlockData(states[i]);
+        }
+    }
+
+    @Override
+    protected int size() {
+        return snapshot.getVolume();
+    }
+
+    @Override
+    protected void restore(int index) {
+        BlockData target = palette[snapshot.getPaletteIndex(index)];
+        Block block = world.getBlockAt(snapshot.getX(index) + offsetX, snapshot.getY(index) + offsetY, snapshot.getZ(index) + offsetZ);
+        if (!block.getBlockData().equals(target)) {
+            block.setBlockData(target, false);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package me.notjoshx.dhoomarenas.reset;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.block.data.BlockData;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Palette-compressed copy of every block in a region.
+ * Each distinct block state is stored once in the palette; the blocks themselves are palette indices
+ * held in an off-heap buffer, two bytes per block.
+ */
+public final class RegionSnapshot {
+    private static final int MAGIC = 0x44415253; // DARS
+    private static final int VERSION = 1;
+
+    private final String world;
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final String[] palette;
+    private final ByteBuffer blocks;
+
+    private RegionSnapshot(String world, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ,
+                           String[] palette, ByteBuffer blocks) {
+        this.world = world;
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.palette = palette;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Build a snapshot from chunk snapshots covering the region. Safe to call off the main thread.
+     * @param world World name
+     * @param minX Minimum block X
+     * @param minY Minimum block Y
+     * @param minZ Minimum block Z
+     * @param maxX Maximum block X
+     * @param maxY Maximum block Y
+     * @param maxZ Maximum block Z
+     * @param chunks Chunk snapshots keyed by {@link #chunkKey(int, int)}
+     * @return Region snapshot
+     */
+    public static RegionSnapshot capture(String world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                                         Map<Long, ChunkSnapshot> chunks) {
+        int sizeX = maxX - minX + 1;
+        int sizeY = maxY - minY + 1;
+        int sizeZ = maxZ - minZ + 1;
+        int volume = Math.multiplyExact(Math.multiplyExact(sizeX, sizeY), sizeZ);
+
+        Map<BlockData, Integer> paletteIndex = new HashMap<>();
+        List<BlockData> palette = new ArrayList<>();
+        ByteBuffer blocks = ByteBuffer.allocateDirect(Math.multiplyExact(volume, 2));
+
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                ChunkSnapshot chunk = chunks.get(chunkKey(chunkX, chunkZ));
+                if (chunk == null) {
+                    throw new IllegalStateException("Missing chunk " + chunkX + ", " + chunkZ);
+                }
+
+                int fromX = Math.max(minX, chunkX << 4);
+                int toX = Math.min(maxX, (chunkX << 4) + 15);
+                int fromZ = Math.max(minZ, chunkZ << 4);
+                int toZ = Math.min(maxZ, (chunkZ << 4) + 15);
+                for (int y = minY; y <= maxY; y++) {
+                    for (int z = fromZ; z <= toZ; z++) {
+                        for (int x = fromX; x <= toX; x++) {
+                            BlockData data = chunk.getBlockData(x & 15, y, z & 15);
+                            Integer index = paletteIndex.get(data);
+                            if (index == null) {
+                                // Indices are stored as unsigned shorts, so 0 to 0xFFFF fit
+                                if (palette.size() >= 0x10000) {
+                                    throw new IllegalStateException("Region has too many distinct block states");
+                                }
+                                index = palette.size();
+                                paletteIndex.put(data, index);
+                                palette.add(data);
+                            }
+                            blocks.putShort((((y - minY) * sizeZ + (z - minZ)) * sizeX + (x - minX)) * 2, (short) (int) index);
+                        }
+                    }
+                }
+            }
+        }
+
+        String[] paletteStrings = new String[palette.size()];
+        for (int i = 0; i < paletteStrings.length; i++) {
+            paletteStrings[i] = palette.get(i).getAsString();
+        }
+
+        return new RegionSnapshot(world, minX, minY, minZ, sizeX, sizeY, sizeZ, paletteStrings, blocks);
+    }
+
+    /**
+     * Read a snapshot written by {@link #write(File)}
+     * @param file Snapshot file
+     * @param maxVolume Most blocks the snapshot may hold; larger or inconsistent files are refused before any memory is reserved
+     * @return Region snapshot
+     * @throws IOException If the file could not be read or is damaged
+     */
+    public static RegionSnapshot read(File file, long maxVolume) throws IOException {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(Files.newInputStream(file.toPath()), 65536))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a region snapshot: " + file.getName());
+            }
+
+            String world = in.readUTF();
+            int minX = in.readInt();
+            int minY = in.readInt();
+            int minZ = in.readInt();
+            int sizeX = in.readInt();
+            int sizeY = in.readInt();
+            int sizeZ = in.readInt();
+            if (sizeX <= 0 || sizeY <= 0 || sizeZ <= 0) {
+                throw new IOException("Invalid region size in " + file.getName());
+            }
+            long volume = (long) sizeX * sizeY * sizeZ;
+            if (volume > maxVolume) {
+                throw new IOException("Region in " + file.getName() + " has " + volume + " blocks, more than the " + maxVolume + " allowed");
+            }
+
+            int paletteSize = in.readInt();
+            if (paletteSize < 0 || paletteSize > 0x10000) {
+                throw new IOException("Invalid palette size " + paletteSize + " in " + file.getName());
+            }
+            String[] palette = new String[paletteSize];
+            for (int i = 0; i < palette.length; i++) {
+                palette[i] = in.readUTF();
+            }
+
+            int length = in.readInt();
+            if (length != volume * 2) {
+                throw new IOException("Block data length " + length + " does not match the region size in " + file.getName());
+            }
+            ByteBuffer blocks = ByteBuffer.allocateDirect(length);
+            readFully(in, blocks);
+            blocks.flip();
+            return new RegionSnapshot(world, minX, minY, minZ, sizeX, sizeY, sizeZ, palette, blocks);
+        }
+    }
+
+    /**
+     * Write this snapshot to disk, compressed. The file is replaced atomically, and each write goes through its own
+     * temporary file, so overlapping writes of the same snapshot cannot interleave.
+     * @param file Snapshot file
+     * @throws IOException If the file could not be written
+     */
+    public void write(File file) throws IOException {
+        Path target = file.toPath();
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), file.getName() + ".", ".tmp");
+        try {
+            writeTo(temp);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void writeTo(Path temp) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(temp), 65536))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(world);
+            out.writeInt(minX);
+            out.writeInt(minY);
+            out.writeInt(minZ);
+            out.writeInt(sizeX);
+            out.writeInt(sizeY);
+            out.writeInt(sizeZ);
+
+            out.writeInt(palette.length);
+            for (String data : palette) {
+                out.writeUTF(data);
+            }
+
+            ByteBuffer view = blocks.duplicate();
+            view.clear();
+            out.writeInt(view.remaining());
+            writeFully(out, view);
+        }
+    }
+
+    private static void readFully(InputStream in, ByteBuffer buffer) throws IOException {
+        byte[] chunk = new byte[65536];
+        while (buffer.hasRemaining()) {
+            int read = in.read(chunk, 0, Math.min(chunk.length, buffer.remaining()));
+            if (read < 0) {
+                throw new IOException("Truncated region snapshot");
+            }
+            buffer.put(chunk, 0, read);
+        }
+    }
+
+    private static void writeFully(OutputStream out, ByteBuffer buffer) throws IOException {
+        byte[] chunk = new byte[65536];
+        while (buffer.hasRemaining()) {
+            int length = Math.min(chunk.length, buffer.remaining());
+            buffer.get(chunk, 0, length);
+            out.write(chunk, 0, length);
+        }
+    }
+
+    /**
+     * Pack chunk coordinates into a map key
+     * @param chunkX Chunk X
+     * @param chunkZ Chunk Z
+     * @return Chunk key
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get the palette index of a block
+     * @param index Block index, from 0 to {@link #getVolume()} - 1
+     * @return Palette index
+     */
+    public int getPaletteIndex(int index) {
+        return blocks.getShort(index * 2) & 0xFFFF;
+    }
+
+    /**
+     * Get the block X coordinate of a block index
+     * @param index Block index
+     * @return Block X
+     */
+    public int getX(int index) {
+        return minX + index % sizeX;
+    }
+
+    /**
+     * Get the block Y coordinate of a block index
+     * @param index Block index
+     * @return Block Y
+     */
+    public int getY(int index) {
+        return minY + index / (sizeX * sizeZ);
+    }
+
+    /**
+     * Get the block Z coordinate of a block index
+     * @param index Block index
+     * @return Block Z
+     */
+    public int getZ(int index) {
+        return minZ + (index / sizeX) % sizeZ;
+    }
+
+    /**
+     * Get the world name
+     * @return World name
+     */
+    public String getWorld() {
+        return world;
+    }
+
+    /**
+     * Get the block states used in this region, as block data strings
+     * @return Palette
+     */
+    public String[] getPalette() {
+        return palette.clone();
+    }
+
+    /**
+     * Get the number of blocks in the region
+     * @return Volume
+     */
+    public int getVolume() {
+        return sizeX * sizeY * sizeZ;
+    }
+
+    /**
+     * Check if this snapshot covers exactly the given bounds
+     * @param world World name
+     * @param minX Minimum block X
+     * @param minY Minimum block Y
+     * @param minZ Minimum block Z
+     * @param maxX Maximum block X
+     * @param maxY Maximum block Y
+     * @param maxZ Maximum block Z
+     * @return True if the bounds match
+     */
+    public boolean covers(String world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return this.world.equals(world) && this.minX == minX && this.minY == minY && this.minZ == minZ
+                && this.minX + sizeX - 1 == maxX && this.minY + sizeY - 1 == maxY && this.minZ + sizeZ - 1 == maxZ;
+    }
+}
@@ -0,0 +1,87 @@
+package me.notjoshx.dhoomarenas.reset;
+
+import me.notjoshx.dhoomarenas.scheduler.WorkUnit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Restores blocks a few at a time, spending at most a fixed amount of time per tick.
+ * Runs as a {@link WorkUnit} on the plugin's work scheduler, so it also stays within the shared tick budget.
+ */
+public abstract class ResetTask implements WorkUnit {
+    private final long budgetNanos;
+    private final DoubleConsumer progress;
+    private final CompletableFuture<Void> future;
+    private int next;
+
+    /**
+     * Create a new reset task
+     * @param budgetNanos Nanoseconds per tick that may be spent restoring blocks
+     * @param progress Progress callback, called once per tick with a value from 0 to 1, or null
+     */
+    protected ResetTask(long budgetNanos, DoubleConsumer progress) {
+        this.budgetNanos = budgetNanos;
+        this.progress = progress;
+        this.future = new CompletableFuture<>();
+    }
+
+    /**
+     * Get the number of blocks to restore
+     * @return Block count
+     */
+    protected abstract int size();
+
+    /**
+     * Restore one block
+     * @param index Block index, from 0 to {@link #size()} - 1
+     */
+    protected abstract void restore(int index);
+
+    /**
+     * Get a future that completes on the main thread once every block has been restored
+     * @return Completion future
+     */
+    public CompletableFuture<Void> getFuture() {
+        return future;
+    }
+
+    @Override
+    public boolean runSlice(long deadlineNanos) {
+        if (future.isDone()) {
+            // Aborted
+            return true;
+        }
+
+        int size = size();
+        long deadline = Math.min(deadlineNanos, System.nanoTime() + budgetNanos);
+        try {
+            while (next < size) {
+                restore(next++);
+                // Reading the clock is not free, so only check it every few blocks
+                if ((next & 63) == 0 && System.nanoTime() >= deadline) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return true;
+        }
+
+        if (progress != null) {
+            progress.accept(size == 0 ? 1.0D : (double) next / size);
+        }
+        if (next >= size) {
+            future.complete(null);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stop restoring, failing the completion future
+     */
+    public void abort() {
+        future.completeExceptionally(new IllegalStateException("Reset was aborted"));
+    }
+}
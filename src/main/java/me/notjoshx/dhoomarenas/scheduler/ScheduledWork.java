@@ -0,0 +1,97 @@
+package me.notjoshx.dhoomarenas.scheduler;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handle to a work unit queued on the {@link WorkScheduler}
+ */
+public final class ScheduledWork {
+    private final WorkUnit unit;
+    private final WorkPriority priority;
+    private final String name;
+    private final long submittedNanos;
+    private final CompletableFuture<Void> future;
+    private long submittedTick;
+    private boolean started;
+
+    ScheduledWork(WorkUnit unit, WorkPriority priority, String name) {
+        this.unit = unit;
+        this.priority = priority;
+        this.name = name;
+        this.submittedNanos = System.nanoTime();
+        this.future = new CompletableFuture<>();
+    }
+
+    /**
+     * Get the work unit
+     * @return Work unit
+     */
+    public WorkUnit getUnit() {
+        return unit;
+    }
+
+    /**
+     * Get the priority the work was queued with
+     * @return Priority
+     */
+    public WorkPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Get the name used in log messages
+     * @return Work name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get a future that completes on the main thread once the work is done.
+     * It fails with the exception thrown by the work, or is cancelled if the work is cancelled.
+     * @return Completion future
+     */
+    public CompletableFuture<Void> getFuture() {
+        return future;
+    }
+
+    /**
+     * Stop the work before its next slice
+     * @return True if the work was still pending
+     */
+    public boolean cancel() {
+        return future.cancel(false);
+    }
+
+    /**
+     * Check if the work has finished, failed or been cancelled
+     * @return True if done
+     */
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    long getSubmittedNanos() {
+        return submittedNanos;
+    }
+
+    long getSubmittedTick() {
+        return submittedTick;
+    }
+
+    void setSubmittedTick(long submittedTick) {
+        this.submittedTick = submittedTick;
+    }
+
+    /**
+     * Mark the work as started
+     * @return True if this was its first slice
+     */
+    boolean start() {
+        if (started) {
+            return false;
+        }
+        started = true;
+        return true;
+    }
+}
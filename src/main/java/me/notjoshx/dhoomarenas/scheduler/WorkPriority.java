@@ -0,0 +1,13 @@
+package me.notjoshx.dhoomarenas.scheduler;
+
+/**
+ * Order in which queued work gets the scheduler's tick budget
+ */
+public enum WorkPriority {
+    /** Work players are actively waiting on, such as teleports */
+    HIGH,
+    /** Regular arena work, such as resets */
+    NORMAL,
+    /** Background work that may take as long as it needs */
+    LOW
+}
@@ -0,0 +1,236 @@
+package me.notjoshx.dhoomarenas.scheduler;
+
+import me.notjoshx.dhoomarenas.DhoomArenas;
+import me.notjoshx.dhoomarenas.metrics.LatencyHistogram;
+import me.notjoshx.dhoomarenas.metrics.PluginMetrics;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Runs sliced {@link WorkUnit}s on the main thread under one shared per-tick time budget.
+ * Work is taken by priority, round-robin within a priority, and every queued unit gets at most one slice per tick.
+ * Each non-empty priority gets at least one slice per tick so lower priorities are never starved.
+ * The budget shrinks as the rest of the server gets closer to the target tick time and grows back when there is room.
+ */
+public class WorkScheduler {
+    // Roughly matches the 100 tick window the server averages its tick time over
+    private static final double SMOOTHING = 0.02D;
+
+    private final DhoomArenas plugin;
+    private final double maxBudgetMillis;
+    private final double minBudgetMillis;
+    private final double targetMspt;
+    private final Queue<ScheduledWork> submitted;
+    private final List<ArrayDeque<ScheduledWork>> queues;
+    private final AtomicInteger pending;
+    private final LatencyHistogram tickTimer;
+    private final LatencyHistogram waitTimer;
+    private final LongAdder completed;
+    private final LongAdder failures;
+    private volatile double budgetMillis;
+    private volatile long lagTicks;
+    private double workMillis;
+    private long tick;
+    private BukkitTask task;
+
+    /**
+     * Create a new work scheduler
+     * @param plugin Plugin instance
+     * @param maxBudgetMillis Most milliseconds per tick that may be spent on work
+     * @param minBudgetMillis Least milliseconds per tick that are spent on work while any is queued
+     * @param targetMspt Tick time in milliseconds the server should stay under
+     */
+    public WorkScheduler(DhoomArenas plugin, double maxBudgetMillis, double minBudgetMillis, double targetMspt) {
+        this.plugin = plugin;
+        this.maxBudgetMillis = Math.max(0.1D, maxBudgetMillis);
+        this.minBudgetMillis = Math.max(0.1D, Math.min(minBudgetMillis, this.maxBudgetMillis));
+        this.targetMspt = targetMspt;
+        this.submitted = new ConcurrentLinkedQueue<>();
+        this.queues = new ArrayList<>();
+        for (int i = 0; i < WorkPriority.values().length; i++) {
+            queues.add(new ArrayDeque<>());
+        }
+        this.pending = new AtomicInteger();
+        this.budgetMillis = this.maxBudgetMillis;
+
+        PluginMetrics metrics = plugin.getMetrics();
+        this.tickTimer = metrics.timer("scheduler_tick", "Time spent running scheduled work per tick");
+        this.waitTimer = metrics.timer("scheduler_wait", "Time from submitting work until its first slice runs");
+        this.completed = metrics.counter("scheduler_completed");
+        this.failures = metrics.counter("scheduler_failures");
+        metrics.gauge("scheduler_queue_depth", "Work units waiting for or in the middle of being run", this::getQueueDepth);
+        metrics.gauge("scheduler_lag_ticks", "Ticks the oldest queued work unit has been waiting", this::getLagTicks);
+        metrics.gauge("scheduler_budget_ms", "Current per-tick time budget in milliseconds", this::getBudgetMillis);
+    }
+
+    /**
+     * Start running queued work every tick
+     */
+    public void start() {
+        if (task == null) {
+            task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    /**
+     * Stop running work, cancelling everything still queued
+     */
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+
+        ScheduledWork work;
+        while ((work = submitted.poll()) != null) {
+            work.cancel();
+        }
+        for (ArrayDeque<ScheduledWork> queue : queues) {
+            while ((work = queue.poll()) != null) {
+                work.cancel();
+            }
+        }
+        pending.set(0);
+    }
+
+    /**
+     * Queue work to be run in slices on the main thread, starting next tick.
+     * May be called from any thread.
+     * @param name Name used in log messages
+     * @param priority Priority
+     * @param unit Work to run
+     * @return Handle to the queued work
+     */
+    public ScheduledWork submit(String name, WorkPriority priority, WorkUnit unit) {
+        ScheduledWork work = new ScheduledWork(unit, priority, name);
+        pending.incrementAndGet();
+        submitted.add(work);
+        return work;
+    }
+
+    /**
+     * Get the number of work units not yet finished
+     * @return Queue depth
+     */
+    public int getQueueDepth() {
+        return pending.get();
+    }
+
+    /**
+     * Get the number of ticks the oldest queued work unit has been waiting, as of the last tick
+     * @return Lag in ticks
+     */
+    public long getLagTicks() {
+        return lagTicks;
+    }
+
+    /**
+     * Get the per-tick budget used on the last tick
+     * @return Budget in milliseconds
+     */
+    public double getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    /**
+     * Run queued work until the tick budget is spent
+     */
+    private void tick() {
+        tick++;
+        ScheduledWork work;
+        while ((work = submitted.poll()) != null) {
+            work.setSubmittedTick(tick);
+            queues.get(work.getPriority().ordinal()).add(work);
+        }
+        if (pending.get() == 0) {
+            lagTicks = 0L;
+            return;
+        }
+
+        budgetMillis = computeBudget();
+        long start = System.nanoTime();
+        long deadline = start + (long) (budgetMillis * 1_000_000L);
+        for (ArrayDeque<ScheduledWork> queue : queues) {
+            int count = queue.size();
+            for (int i = 0; i < count; i++) {
+                if (i > 0 && System.nanoTime() >= deadline) {
+                    break;
+                }
+                runSlice(queue, deadline);
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        tickTimer.record(elapsed);
+        workMillis += (elapsed / 1_000_000.0D - workMillis) * SMOOTHING;
+        lagTicks = computeLag();
+    }
+
+    /**
+     * Run one slice of the work at the head of a queue, putting it back at the tail if it is not finished
+     * @param queue Queue to take the work from
+     * @param deadline Time to stop at
+     */
+    private void runSlice(ArrayDeque<ScheduledWork> queue, long deadline) {
+        ScheduledWork work = queue.poll();
+        if (work.isDone()) {
+            // Cancelled while queued
+            pending.decrementAndGet();
+            return;
+        }
+        if (work.start()) {
+            waitTimer.recordSince(work.getSubmittedNanos());
+        }
+
+        boolean finished;
+        try {
+            finished = work.getUnit().runSlice(deadline);
+        } catch (RuntimeException e) {
+            pending.decrementAndGet();
+            failures.increment();
+            plugin.getLogger().log(Level.WARNING, "Scheduled work " + work.getName() + " failed", e);
+            work.getFuture().completeExceptionally(e);
+            return;
+        }
+
+        if (finished) {
+            pending.decrementAndGet();
+            completed.increment();
+            work.getFuture().complete(null);
+        } else {
+            queue.add(work);
+        }
+    }
+
+    /**
+     * Work out this tick's budget from the server's average tick time
+     * @return Budget in milliseconds
+     */
+    private double computeBudget() {
+        // Leave out the time spent on our own work, otherwise the budget would keep shrinking itself
+        double otherMillis = Math.max(0.0D, plugin.getServer().getAverageTickTime() - workMillis);
+        return Math.max(minBudgetMillis, Math.min(maxBudgetMillis, targetMspt - otherMillis));
+    }
+
+    /**
+     * Find how long the oldest queued work unit has been waiting
+     * @return Lag in ticks
+     */
+    private long computeLag() {
+        long oldest = tick;
+        for (ArrayDeque<ScheduledWork> queue : queues) {
+            for (ScheduledWork work : queue) {
+                oldest = Math.min(oldest, work.getSubmittedTick());
+            }
+        }
+        return tick - oldest;
+    }
+}
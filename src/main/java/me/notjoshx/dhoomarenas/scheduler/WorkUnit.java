@@ -0,0 +1,16 @@
+package me.notjoshx.dhoomarenas.scheduler;
+
+/**
+ * A piece of main-thread work that is done in slices across ticks by the {@link WorkScheduler}
+ */
+@FunctionalInterface
+public interface WorkUnit {
+    /**
+     * Do some of the work, returning once it is finished or the deadline has passed.
+     * Called on the main thread. Each call should make progress even if the deadline has already passed,
+     * but should check the clock often enough not to overshoot it by much.
+     * @param deadlineNanos {@link System#nanoTime()} value to stop at
+     * @return True once all work is done
+     */
+    boolean runSlice(long deadlineNanos);
+}
@@ -0,0 +1,385 @@
+package me.notjoshx.dhoomarenas.storage;
+
+import me.notjoshx.dhoomarenas.DhoomArenas;
+import me.notjoshx.dhoomarenas.metrics.LatencyHistogram;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of arena mutations, kept in numbered segment files.
+ * Records are appended by a background thread that syncs each group of records to disk with a single fsync.
+ * Once the save queue has written every arena changed in a segment, the segment is deleted, which compacts the journal.
+ */
+public class ArenaJournal {
+    private static final String EXTENSION = ".log";
+    private static final int MAX_RECORD_SIZE = 1 << 16;
+    /** Queued in place of a record to make the writer thread start the next segment */
+    private static final byte[] ROTATE = new byte[0];
+
+    private final DhoomArenas plugin;
+    private final File folder;
+    private final long groupCommitNanos;
+    private final BlockingQueue<byte[]> pending;
+    private final LatencyHistogram syncTimer;
+    private final LongAdder records;
+    private final AtomicLong reservedSegment;
+    private final AtomicBoolean appended;
+    private long firstSegment;
+    private long segment;
+    private boolean segmentEmpty;
+    private FileChannel channel;
+    private Thread thread;
+    private volatile boolean running;
+
+    /**
+     * Create a new journal
+     * @param plugin Plugin instance
+     * @param folder Folder holding the segment files
+     * @param groupCommitMillis Longest time a record waits for others to share its fsync
+     */
+    public ArenaJournal(DhoomArenas plugin, File folder, long groupCommitMillis) {
+        this.plugin = plugin;
+        this.folder = folder;
+        this.groupCommitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, groupCommitMillis));
+        this.pending = new LinkedBlockingQueue<>();
+        this.syncTimer = plugin.getMetrics().timer("journal_sync", "Time spent writing and syncing one group of journal records");
+        this.records = plugin.getMetrics().counter("journal_records");
+        this.reservedSegment = new AtomicLong();
+        this.appended = new AtomicBoolean();
+    }
+
+    /**
+     * Open a new segment after any left over from the last run and start the writer thread
+     * @throws IOException If the journal folder or segment could not be created
+     */
+    public synchronized void open() throws IOException {
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("Could not create " + folder);
+        }
+
+        long last = 0L;
+        for (long existing : listSegments()) {
+            last = Math.max(last, existing);
+        }
+        firstSegment = last + 1;
+        openSegment(firstSegment);
+        reservedSegment.set(firstSegment);
+
+        running = true;
+        thread = new Thread(this::run, "DhoomArenas-Journal");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Append a mutation. The record is encoded on the calling thread and synced to disk shortly after.
+     * @param mutation Mutation to record
+     */
+    public void append(ArenaMutation mutation) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            mutation.write(out);
+        } catch (IOException e) {
+            // Cannot happen when writing to memory
+            throw new IllegalStateException(e);
+        }
+        appended.set(true);
+        pending.add(bytes.toByteArray());
+    }
+
+    /**
+     * Start a new segment for records appended from now on. The writer thread switches segments once it has
+     * written every record queued before this call, so the caller never waits for a sync.
+     * @return Number of the segment that records appended from now on go to; all older segments are covered by the next save
+     */
+    public long rotate() {
+        if (!appended.getAndSet(false)) {
+            return reservedSegment.get();
+        }
+
+        long next = reservedSegment.incrementAndGet();
+        pending.add(ROTATE);
+        return next;
+    }
+
+    /**
+     * Delete segments whose changes have all been saved
+     * @param keepFrom Oldest segment to keep
+     */
+    public synchronized void deleteBefore(long keepFrom) {
+        for (long existing : listSegments()) {
+            if (existing < keepFrom && !getSegmentFile(existing).delete()) {
+                plugin.getLogger().warning("Could not delete journal segment " + existing);
+            }
+        }
+    }
+
+    /**
+     * Replay every record left over from the last run, oldest first.
+     * A torn or corrupt record ends its segment, since nothing after it can be trusted.
+     * @param consumer Receives each mutation
+     * @return Number of replayed mutations
+     */
+    public int replay(Consumer<ArenaMutation> consumer) {
+        List<Long> segments = listSegments();
+        segments.sort(null);
+
+        int replayed = 0;
+        for (long existing : segments) {
+            if (existing >= firstSegment) {
+                break;
+            }
+
+            File file = getSegmentFile(existing);
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file.toPath())))) {
+                while (true) {
+                    int length;
+                    try {
+                        length = in.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+
+                    if (length < 0 || length > MAX_RECORD_SIZE) {
+                        throw new IOException("Invalid record length " + length);
+                    }
+                    byte[] record = new byte[length];
+                    in.readFully(record);
+                    CRC32 crc = new CRC32();
+                    crc.update(record);
+                    if (in.readInt() != (int) crc.getValue()) {
+                        throw new IOException("Checksum mismatch");
+                    }
+
+                    consumer.accept(ArenaMutation.read(new DataInputStream(new ByteArrayInputStream(record))));
+                    replayed++;
+                }
+            } catch (IOException e) {
+                plugin.getLogger().warning("Stopped replaying journal segment " + existing + " at a damaged record: " + e.getMessage());
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Write any remaining records, stop the writer thread and drop the current segment if it is empty
+     */
+    public void close() {
+        // Not interrupted: an interrupt during a write would close the channel under it
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronized (this) {
+            if (channel == null) {
+                return;
+            }
+            try {
+                writePending();
+                channel.close();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Could not close arena journal", e);
+            }
+            channel = null;
+            if (segmentEmpty) {
+                getSegmentFile(segment).delete();
+            }
+        }
+    }
+
+    /**
+     * Writer thread: wait for a record, gather others arriving within the group commit window, then sync them together
+     */
+    private void run() {
+        while (running) {
+            try {
+                byte[] first = pending.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                List<byte[]> group = new ArrayList<>();
+                group.add(first);
+                long deadline = System.nanoTime() + groupCommitNanos;
+                long remaining = groupCommitNanos;
+                while (remaining > 0L) {
+                    byte[] next = pending.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                    remaining = deadline - System.nanoTime();
+                }
+                pending.drainTo(group);
+
+                synchronized (this) {
+                    write(group);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Could not write arena journal", e);
+            }
+        }
+    }
+
+    /**
+     * Write every queued record. Must hold this object's lock.
+     * @throws IOException If writing fails
+     */
+    private void writePending() throws IOException {
+        List<byte[]> group = new ArrayList<>();
+        pending.drainTo(group);
+        if (!group.isEmpty()) {
+            write(group);
+        }
+    }
+
+    /**
+     * Write records, starting a new segment at each rotation marker. Must hold this object's lock.
+     * @param group Encoded records and rotation markers
+     * @throws IOException If writing fails
+     */
+    private void write(List<byte[]> group) throws IOException {
+        IOException failure = null;
+        List<byte[]> batch = new ArrayList<>(group.size());
+        for (byte[] record : group) {
+            if (record != ROTATE) {
+                batch.add(record);
+                continue;
+            }
+
+            // Every marker advances the segment even after a failed write, so the numbers match those rotate() handed out
+            try {
+                sync(batch);
+            } catch (IOException e) {
+                failure = e;
+            }
+            batch.clear();
+            try {
+                nextSegment();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        try {
+            sync(batch);
+        } catch (IOException e) {
+            failure = e;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Write records with their length and checksum, then sync once. Must hold this object's lock.
+     * @param group Encoded records
+     * @throws IOException If writing fails
+     */
+    private void sync(List<byte[]> group) throws IOException {
+        if (group.isEmpty()) {
+            return;
+        }
+        if (channel == null) {
+            throw new IOException("Arena journal is closed");
+        }
+
+        long start = System.nanoTime();
+        int size = 0;
+        for (byte[] record : group) {
+            size += record.length + 8;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        CRC32 crc = new CRC32();
+        for (byte[] record : group) {
+            crc.reset();
+            crc.update(record);
+            buffer.putInt(record.length).put(record).putInt((int) crc.getValue());
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+
+        segmentEmpty = false;
+        records.add(group.size());
+        syncTimer.recordSince(start);
+    }
+
+    /**
+     * Close the current segment and open the next one. Must hold this object's lock.
+     * @throws IOException If the current segment could not be closed or the next one opened
+     */
+    private void nextSegment() throws IOException {
+        long number = segment + 1;
+        FileChannel current = channel;
+        channel = null;
+        segment = number;
+        try {
+            if (current != null) {
+                current.close();
+            }
+        } finally {
+            openSegment(number);
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        channel = FileChannel.open(getSegmentFile(number).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segment = number;
+        segmentEmpty = channel.size() == 0L;
+    }
+
+    private File getSegmentFile(long number) {
+        return new File(folder, String.format("%016d", number) + EXTENSION);
+    }
+
+    private List<Long> listSegments() {
+        List<Long> segments = new ArrayList<>();
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (files == null) {
+            return segments;
+        }
+
+        for (File file : files) {
+            String name = file.getName();
+            try {
+                segments.add(Long.parseLong(name.substring(0, name.length() - EXTENSION.length())));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return segments;
+    }
+}
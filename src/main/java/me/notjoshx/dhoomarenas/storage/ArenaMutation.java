@@ -0,0 +1,209 @@
+package me.notjoshx.dhoomarenas.storage;
+
+import me.notjoshx.dhoomarenas.models.ArenaSnapshot;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Single change to an arena, as recorded in the journal.
+ * Every mutation sets an absolute value, so replaying one that is already persisted is harmless.
+ */
+public final class ArenaMutation {
+    private static final byte CREATE = 1;
+    private static final byte DELETE = 2;
+    private static final byte LOCATION = 3;
+    private static final byte SPAWN_POINT = 4;
+    private static final byte MAX_PLAYERS = 5;
+    private static final byte WAIT_TIME = 6;
+
+    private final byte type;
+    private final String arenaName;
+    private final int key;
+    private final String world;
+    private final double x;
+    private final double y;
+    private final double z;
+    private final float yaw;
+    private final float pitch;
+
+    private ArenaMutation(byte type, String arenaName, int key, String world, double x, double y, double z, float yaw, float pitch) {
+        this.type = type;
+        this.arenaName = arenaName;
+        this.key = key;
+        this.world = world;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.yaw = yaw;
+        this.pitch = pitch;
+    }
+
+    private static ArenaMutation of(byte type, String arenaName, int key) {
+        return new ArenaMutation(type, arenaName, key, null, 0.0D, 0.0D, 0.0D, 0.0F, 0.0F);
+    }
+
+    private static ArenaMutation of(byte type, String arenaName, int key, Location location) {
+        World world = location != null ? location.getWorld() : null;
+        if (world == null) {
+            return of(type, arenaName, key);
+        }
+        return new ArenaMutation(type, arenaName, key, world.getName(), location.getX(), location.getY(), location.getZ(),
+                location.getYaw(), location.getPitch());
+    }
+
+    /**
+     * Record that an arena was created
+     * @param arenaName Arena name
+     * @return Mutation
+     */
+    public static ArenaMutation create(String arenaName) {
+        return of(CREATE, arenaName, 0);
+    }
+
+    /**
+     * Record that an arena was deleted
+     * @param arenaName Arena name
+     * @return Mutation
+     */
+    public static ArenaMutation delete(String arenaName) {
+        return of(DELETE, arenaName, 0);
+    }
+
+    /**
+     * Record a new position 1, position 2 or center
+     * @param arenaName Arena name
+     * @param slot {@link ArenaSnapshot#POS1}, {@link ArenaSnapshot#POS2} or {@link ArenaSnapshot#CENTER}
+     * @param location New location, or null if unset
+     * @return Mutation
+     */
+    public static ArenaMutation location(String arenaName, int slot, Location location) {
+        return of(LOCATION, arenaName, slot, location);
+    }
+
+    /**
+     * Record a new spawn point
+     * @param arenaName Arena name
+     * @param number Spawn point number
+     * @param location New location
+     * @return Mutation
+     */
+    public static ArenaMutation spawnPoint(String arenaName, int number, Location location) {
+        return of(SPAWN_POINT, arenaName, number, location);
+    }
+
+    /**
+     * Record a new max player count
+     * @param arenaName Arena name
+     * @param maxPlayers Max players
+     * @return Mutation
+     */
+    public static ArenaMutation maxPlayers(String arenaName, int maxPlayers) {
+        return of(MAX_PLAYERS, arenaName, maxPlayers);
+    }
+
+    /**
+     * Record a new wait time
+     * @param arenaName Arena name
+     * @param waitTimeSeconds Wait time in seconds
+     * @return Mutation
+     */
+    public static ArenaMutation waitTime(String arenaName, int waitTimeSeconds) {
+        return of(WAIT_TIME, arenaName, waitTimeSeconds);
+    }
+
+    /**
+     * Get the name of the changed arena
+     * @return Arena name
+     */
+    public String getArenaName() {
+        return arenaName;
+    }
+
+    /**
+     * Check if this mutation creates an arena
+     * @return True for a create record
+     */
+    public boolean isCreate() {
+        return type == CREATE;
+    }
+
+    /**
+     * Check if this mutation deletes an arena
+     * @return True for a delete record
+     */
+    public boolean isDelete() {
+        return type == DELETE;
+    }
+
+    /**
+     * Apply this mutation to the values of an arena. Create and delete records leave the values unchanged.
+     * @param builder Builder holding the current arena values
+     */
+    public void applyTo(ArenaSnapshot.Builder builder) {
+        switch (type) {
+            case LOCATION:
+                builder.set(key, world, x, y, z, yaw, pitch);
+                break;
+            case SPAWN_POINT:
+                builder.spawnPoint(key, world, x, y, z, yaw, pitch);
+                break;
+            case MAX_PLAYERS:
+                builder.maxPlayers(key);
+                break;
+            case WAIT_TIME:
+                builder.waitTimeSeconds(key);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Write this mutation in its compact binary form
+     * @param out Output
+     * @throws IOException If writing fails
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeByte(type);
+        out.writeUTF(arenaName);
+        out.writeInt(key);
+        if (type != LOCATION && type != SPAWN_POINT) {
+            return;
+        }
+
+        out.writeBoolean(world != null);
+        if (world != null) {
+            out.writeUTF(world);
+            out.writeDouble(x);
+            out.writeDouble(y);
+            out.writeDouble(z);
+            out.writeFloat(yaw);
+            out.writeFloat(pitch);
+        }
+    }
+
+    /**
+     * Read a mutation written by {@link #write(DataOutput)}
+     * @param in Input
+     * @return Mutation
+     * @throws IOException If reading fails or the record is not valid
+     */
+    public static ArenaMutation read(DataInput in) throws IOException {
+        byte type = in.readByte();
+        String arenaName = in.readUTF();
+        int key = in.readInt();
+        if (type < CREATE || type > WAIT_TIME) {
+            throw new IOException("Unknown journal record type " + type);
+        }
+        if ((type != LOCATION && type != SPAWN_POINT) || !in.readBoolean()) {
+            return of(type, arenaName, key);
+        }
+
+        return new ArenaMutation(type, arenaName, key, in.readUTF(), in.readDouble(), in.readDouble(), in.readDouble(),
+                in.readFloat(), in.readFloat());
+    }
+}
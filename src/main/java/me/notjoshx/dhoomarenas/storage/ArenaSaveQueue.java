@@ -0,0 +1,289 @@
+package me.notjoshx.dhoomarenas.storage;
+
+import me.notjoshx.dhoomarenas.DhoomArenas;
+import me.notjoshx.dhoomarenas.metrics.LatencyHistogram;
+import me.notjoshx.dhoomarenas.models.Arena;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Write-behind saver for arenas.
+ * Changed arenas are collected and written to the storage backend as one batch per flush interval on a background thread.
+ * With a journal attached, every change is also appended to the journal right away, and each flush compacts it.
+ */
+public class ArenaSaveQueue {
+    private final DhoomArenas plugin;
+    private final ArenaStorage storage;
+    private final ArenaJournal journal;
+    private final long flushIntervalTicks;
+    private final Map<Arena, CompletableFuture<Void>> dirty;
+    private final Set<Arena> discarded;
+    private final ExecutorService writer;
+    private final LatencyHistogram flushTimer;
+    private final LatencyHistogram serializeTimer;
+    private final LatencyHistogram writeTimer;
+    private final LongAdder failures;
+    private volatile boolean writeFailed;
+    private BukkitTask flushTask;
+
+    /**
+     * Create a new save queue
+     * @param plugin Plugin instance
+     * @param storage Backend arenas are written to
+     * @param journal Journal changes are recorded in, or null to rely on flushes alone
+     * @param flushIntervalTicks Ticks between flushes
+     */
+    public ArenaSaveQueue(DhoomArenas plugin, ArenaStorage storage, ArenaJournal journal, long flushIntervalTicks) {
+        this.plugin = plugin;
+        this.storage = storage;
+        this.journal = journal;
+        this.flushIntervalTicks = Math.max(1L, flushIntervalTicks);
+        this.dirty = new LinkedHashMap<>();
+        this.discarded = Collections.newSetFromMap(new WeakHashMap<>());
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DhoomArenas-Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flushTimer = plugin.getMetrics().timer("arena_flush", "Time spent on the main thread per save flush");
+        this.serializeTimer = plugin.getMetrics().timer("arena_serialize", "Time spent serializing an arena on the main thread");
+        this.writeTimer = plugin.getMetrics().timer("arena_write", "Time spent writing one flush batch on the writer thread");
+        this.failures = plugin.getMetrics().counter("arena_save_failures");
+    }
+
+    /**
+     * Start the periodic flush task
+     */
+    public void start() {
+        if (flushTask == null) {
+            flushTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::flush, flushIntervalTicks, flushIntervalTicks);
+        }
+    }
+
+    /**
+     * Mark an arena as changed so it is written on the next flush
+     * @param arena Arena to save
+     * @return Future completed once the arena has been written to disk
+     */
+    public synchronized CompletableFuture<Void> markDirty(Arena arena) {
+        return dirty.computeIfAbsent(arena, key -> new CompletableFuture<>());
+    }
+
+    /**
+     * Record a change in the journal, if one is attached, and mark the arena as changed
+     * @param arena Changed arena
+     * @param mutation The change
+     * @return Future completed once the arena has been written to the storage backend
+     */
+    public CompletableFuture<Void> markDirty(Arena arena, ArenaMutation mutation) {
+        if (journal != null) {
+            journal.append(mutation);
+        }
+        return markDirty(arena);
+    }
+
+    /**
+     * Get the pending save of an arena
+     * @param arena Arena
+     * @return Future completed once the arena has been written, or a completed future if nothing is pending
+     */
+    public synchronized CompletableFuture<Void> getPendingSave(Arena arena) {
+        CompletableFuture<Void> future = dirty.get(arena);
+        return future != null ? future : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Serialize all dirty arenas and hand them to the writer thread.
+     * Must be called from the main thread.
+     */
+    public void flush() {
+        long start = System.nanoTime();
+        // Every change recorded in older segments is either drained below or already queued for writing
+        long segment = journal != null ? journal.rotate() : 0L;
+        List<Arena> failed = new ArrayList<>(0);
+        List<PendingWrite> writes = drain(failed);
+        if (!writes.isEmpty()) {
+            writer.execute(() -> writeBatch(writes));
+        }
+        if (journal != null) {
+            // Their changes only live in the journal now, so retry them and keep the journal until they are written
+            for (Arena arena : failed) {
+                markDirty(arena);
+            }
+            boolean serializeFailed = !failed.isEmpty();
+            writer.execute(() -> compactJournal(segment, serializeFailed));
+        }
+        if (!writes.isEmpty()) {
+            flushTimer.recordSince(start);
+        }
+    }
+
+    /**
+     * Discard any pending writes for an arena and delete it from the storage backend on the writer thread,
+     * after every write queued before it
+     * @param arena Arena to delete
+     * @return Future completed on the writer thread with true if the arena is no longer stored
+     */
+    public CompletableFuture<Boolean> delete(Arena arena) {
+        CompletableFuture<Void> pending;
+        synchronized (this) {
+            pending = dirty.remove(arena);
+            discarded.add(arena);
+        }
+        if (pending != null) {
+            pending.complete(null);
+        }
+
+        if (journal != null) {
+            journal.append(ArenaMutation.delete(arena.getName()));
+        }
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        writer.execute(() -> {
+            try {
+                boolean deleted = storage.delete(arena);
+                if (!deleted) {
+                    plugin.getLogger().warning("Could not delete arena " + arena.getName() + " from storage");
+                }
+                future.complete(deleted);
+            } catch (IOException e) {
+                failures.increment();
+                plugin.getLogger().log(Level.SEVERE, "Could not delete arena " + arena.getName(), e);
+                future.complete(false);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Flush everything and stop the writer, waiting for queued writes to finish
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+
+        flush();
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out waiting for arena files to be written!");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Take all dirty arenas and serialize them
+     * @param failed Receives the arenas that could not be serialized
+     * @return Writes to perform
+     */
+    private List<PendingWrite> drain(List<Arena> failed) {
+        List<Map.Entry<Arena, CompletableFuture<Void>>> entries;
+        synchronized (this) {
+            if (dirty.isEmpty()) {
+                return Collections.emptyList();
+            }
+            entries = new ArrayList<>(dirty.entrySet());
+            dirty.clear();
+        }
+
+        List<PendingWrite> writes = new ArrayList<>(entries.size());
+        for (Map.Entry<Arena, CompletableFuture<Void>> entry : entries) {
+            Arena arena = entry.getKey();
+            long start = System.nanoTime();
+            try {
+                writes.add(new PendingWrite(SerializedArena.of(arena), entry.getValue()));
+                serializeTimer.recordSince(start);
+            } catch (RuntimeException e) {
+                failures.increment();
+                failed.add(arena);
+                entry.getValue().completeExceptionally(e);
+                plugin.getLogger().log(Level.SEVERE, "Could not serialize arena " + arena.getName(), e);
+            }
+        }
+        return writes;
+    }
+
+    /**
+     * Write one flush batch on the writer thread, skipping arenas deleted in the meantime
+     * @param writes Serialized arenas
+     */
+    private void writeBatch(List<PendingWrite> writes) {
+        long start = System.nanoTime();
+        try {
+            List<SerializedArena> batch = new ArrayList<>(writes.size());
+            synchronized (this) {
+                for (PendingWrite write : writes) {
+                    if (!discarded.contains(write.arena.getArena())) {
+                        batch.add(write.arena);
+                    }
+                }
+            }
+            storage.write(batch);
+            writeTimer.recordSince(start);
+            for (PendingWrite write : writes) {
+                write.future.complete(null);
+            }
+        } catch (IOException e) {
+            failures.increment();
+            writeFailed = true;
+            for (PendingWrite write : writes) {
+                write.future.completeExceptionally(e);
+            }
+            plugin.getLogger().log(Level.SEVERE, "Could not save " + writes.size() + " arenas", e);
+
+            // Keep trying on later flushes, since the changes are otherwise only in memory or the journal
+            synchronized (this) {
+                for (PendingWrite write : writes) {
+                    Arena arena = write.arena.getArena();
+                    if (!discarded.contains(arena)) {
+                        markDirty(arena);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete journal segments covered by the writes queued before this call, unless one of them failed
+     * @param keepFrom Oldest segment still needed
+     * @param serializeFailed True if an arena of this flush could not be serialized
+     */
+    private void compactJournal(long keepFrom, boolean serializeFailed) {
+        if (writeFailed || serializeFailed) {
+            // The failed arenas were queued again; the next successful flush compacts
+            writeFailed = false;
+            return;
+        }
+        journal.deleteBefore(keepFrom);
+    }
+
+    /**
+     * Serialized arena waiting to be written
+     */
+    private static final class PendingWrite {
+        private final SerializedArena arena;
+        private final CompletableFuture<Void> future;
+
+        private PendingWrite(SerializedArena arena, CompletableFuture<Void> future) {
+            this.arena = arena;
+            this.future = future;
+        }
+    }
+}
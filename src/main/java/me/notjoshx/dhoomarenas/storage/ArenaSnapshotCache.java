@@ -0,0 +1,226 @@
+package me.notjoshx.dhoomarenas.storage;
+
+import me.notjoshx.dhoomarenas.DhoomArenas;
+import me.notjoshx.dhoomarenas.models.Arena;
+import me.notjoshx.dhoomarenas.models.ArenaSnapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Binary snapshot of every arena, used to skip YAML parsing on warm starts.
+ * The arena files stay the source of truth; an entry is only used while its file is unchanged.
+ */
+public class ArenaSnapshotCache {
+    private static final int MAGIC = 0x44414331; // DAC1
+    private static final int VERSION = 2;
+
+    private final DhoomArenas plugin;
+    private final File cacheFile;
+
+    /**
+     * Create a new snapshot cache
+     * @param plugin Plugin instance
+     * @param cacheFile Snapshot file
+     */
+    public ArenaSnapshotCache(DhoomArenas plugin, File cacheFile) {
+        this.plugin = plugin;
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Read the snapshot file
+     * @return Cached arenas by name, empty if there is no usable snapshot
+     */
+    public Map<String, CachedArena> load() {
+        if (!cacheFile.isFile()) {
+            return Collections.emptyMap();
+        }
+
+        try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return Collections.emptyMap();
+            }
+
+            int count = buffer.getInt();
+            Map<String, CachedArena> cached = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                CachedArena arena = new CachedArena(buffer);
+                cached.put(arena.name, arena);
+            }
+            return cached;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            plugin.getLogger().log(Level.WARNING, "Ignoring unreadable arena snapshot", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Serialize arenas into the snapshot format. Must be called from the main thread.
+     * @param arenas Arenas to include
+     * @return Snapshot contents
+     */
+    public byte[] encode(Collection<Arena> arenas) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + arenas.size() * 256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(arenas.size());
+
+            for (Arena arena : arenas) {
+                ArenaSnapshot snapshot = arena.getSnapshot();
+                writeString(out, arena.getName());
+                out.writeLong(arena.getFileLength());
+                out.writeLong(arena.getFileModified());
+                out.writeInt(snapshot.getMaxPlayers());
+                out.writeInt(snapshot.getWaitTimeSeconds());
+                writeLocation(out, snapshot, ArenaSnapshot.POS1);
+                writeLocation(out, snapshot, ArenaSnapshot.POS2);
+                writeLocation(out, snapshot, ArenaSnapshot.CENTER);
+
+                out.writeInt(snapshot.getSpawnPointCount());
+                for (int i = 0; i < snapshot.getSpawnPointCount(); i++) {
+                    out.writeInt(snapshot.getSpawnPointNumber(i));
+                    writeLocation(out, snapshot, ArenaSnapshot.FIRST_SPAWN + i);
+                }
+            }
+        } catch (IOException e) {
+            // Cannot happen when writing to memory
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Replace the snapshot file
+     * @param data Snapshot contents from {@link #encode(Collection)}
+     */
+    public void write(byte[] data) {
+        Path target = cacheFile.toPath();
+        Path temp = target.resolveSibling(cacheFile.getName() + ".tmp");
+        try {
+            Files.write(temp, data);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not write arena snapshot", e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeLocation(DataOutputStream out, ArenaSnapshot snapshot, int slot) throws IOException {
+        if (!snapshot.isSet(slot)) {
+            out.writeBoolean(false);
+            return;
+        }
+
+        out.writeBoolean(true);
+        writeString(out, snapshot.getWorldName(slot));
+        out.writeDouble(snapshot.getX(slot));
+        out.writeDouble(snapshot.getY(slot));
+        out.writeDouble(snapshot.getZ(slot));
+        out.writeFloat(snapshot.getYaw(slot));
+        out.writeFloat(snapshot.getPitch(slot));
+    }
+
+    /**
+     * Arena entry read from the snapshot
+     */
+    public static final class CachedArena {
+        private final String name;
+        private final long fileLength;
+        private final long fileModified;
+        private final ArenaSnapshot snapshot;
+
+        private CachedArena(MappedByteBuffer buffer) {
+            this.name = readString(buffer);
+            this.fileLength = buffer.getLong();
+            this.fileModified = buffer.getLong();
+
+            ArenaSnapshot.Builder builder = new ArenaSnapshot.Builder(name)
+                    .maxPlayers(buffer.getInt())
+                    .waitTimeSeconds(buffer.getInt());
+            readLocation(buffer, builder, ArenaSnapshot.POS1, 0);
+            readLocation(buffer, builder, ArenaSnapshot.POS2, 0);
+            readLocation(buffer, builder, ArenaSnapshot.CENTER, 0);
+
+            int spawnCount = buffer.getInt();
+            for (int i = 0; i < spawnCount; i++) {
+                int number = buffer.getInt();
+                readLocation(buffer, builder, -1, number);
+            }
+            this.snapshot = builder.build();
+        }
+
+        /**
+         * Check if this entry still matches the arena file
+         * @param file Arena file
+         * @return True if the file has not changed since the snapshot was taken
+         */
+        public boolean matches(File file) {
+            return file.length() == fileLength && file.lastModified() == fileModified;
+        }
+
+        /**
+         * Build an arena from this entry. Worlds are resolved lazily, so this works while they are not loaded.
+         * @param file Arena file
+         * @return Arena
+         */
+        public Arena toArena(File file) {
+            Arena arena = new Arena(file, snapshot);
+            arena.setFileStamp(fileLength, fileModified);
+            return arena;
+        }
+    }
+
+    /**
+     * Read a location entry into a builder slot
+     * @param buffer Snapshot buffer
+     * @param builder Builder to fill
+     * @param slot Slot to set, or -1 for a spawn point
+     * @param spawnNumber Spawn point number when slot is -1
+     */
+    private static void readLocation(MappedByteBuffer buffer, ArenaSnapshot.Builder builder, int slot, int spawnNumber) {
+        if (buffer.get() == 0) {
+            return;
+        }
+
+        String world = readString(buffer);
+        double x = buffer.getDouble();
+        double y = buffer.getDouble();
+        double z = buffer.getDouble();
+        float yaw = buffer.getFloat();
+        float pitch = buffer.getFloat();
+        if (slot >= 0) {
+            builder.set(slot, world, x, y, z, yaw, pitch);
+        } else {
+            builder.spawnPoint(spawnNumber, world, x, y, z, yaw, pitch);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package me.notjoshx.dhoomarenas.storage;
+
+import me.notjoshx.dhoomarenas.models.Arena;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Backend that arenas are loaded from and saved to.
+ * Implementations must be safe to call from the loader threads, the save queue's writer thread and the main thread,
+ * but never see two writes at the same time.
+ */
+public interface ArenaStorage {
+
+    /**
+     * Get the configuration name of this backend
+     * @return Backend type, e.g. "yaml"
+     */
+    String getType();
+
+    /**
+     * Prepare the backend, creating folders or tables as needed
+     * @throws IOException If the backend could not be opened
+     */
+    void open() throws IOException;
+
+    /**
+     * List the names of all stored arenas
+     * @return Arena names
+     * @throws IOException If the names could not be read
+     */
+    List<String> listArenas() throws IOException;
+
+    /**
+     * Load a single arena by name
+     * @param name Arena name
+     * @return Arena, or null if no arena with that name is stored
+     * @throws IOException If the arena could not be read
+     * @throws IllegalArgumentException If the stored arena is not valid
+     */
+    Arena load(String name) throws IOException;
+
+    /**
+     * Create a new arena, or load it if it is already stored
+     * @param name Arena name
+     * @return Arena
+     * @throws IOException If the arena could not be created
+     */
+    Arena create(String name) throws IOException;
+
+    /**
+     * Write a batch of serialized arenas. Backends that support transactions write the batch atomically.
+     * @param batch Arenas with their serialized contents
+     * @throws IOException If the batch could not be written
+     */
+    void write(List<SerializedArena> batch) throws IOException;
+
+    /**
+     * Delete a stored arena
+     * @param arena Arena to delete
+     * @return True if the arena is no longer stored
+     * @throws IOException If the arena could not be deleted
+     */
+    boolean delete(Arena arena) throws IOException;
+
+    /**
+     * Release any resources held by the backend
+     */
+    void close();
+}
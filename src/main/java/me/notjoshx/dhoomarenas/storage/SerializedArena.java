@@ -0,0 +1,59 @@
+package me.notjoshx.dhoomarenas.storage;
+
+import me.notjoshx.dhoomarenas.models.Arena;
+import me.notjoshx.dhoomarenas.models.ArenaSnapshot;
+
+/**
+ * Arena together with its serialized contents, taken on the main thread and written later
+ */
+public final class SerializedArena {
+    private final Arena arena;
+    private final ArenaSnapshot snapshot;
+    private final String data;
+
+    /**
+     * Create a new serialized arena
+     * @param arena Arena
+     * @param snapshot Snapshot the contents were serialized from
+     * @param data Serialized contents from {@link Arena#saveToString(ArenaSnapshot)}
+     */
+    public SerializedArena(Arena arena, ArenaSnapshot snapshot, String data) {
+        this.arena = arena;
+        this.snapshot = snapshot;
+        this.data = data;
+    }
+
+    /**
+     * Serialize an arena's current state
+     * @param arena Arena
+     * @return Serialized arena
+     */
+    public static SerializedArena of(Arena arena) {
+        ArenaSnapshot snapshot = arena.getSnapshot();
+        return new SerializedArena(arena, snapshot, arena.saveToString(snapshot));
+    }
+
+    /**
+     * Get the arena
+     * @return Arena
+     */
+    public Arena getArena() {
+        return arena;
+    }
+
+    /**
+     * Get the snapshot the contents were serialized from, so values stored beside them match the contents
+     * @return Arena snapshot
+     */
+    public ArenaSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the serialized contents
+     * @return Serialized contents
+     */
+    public String getData() {
+        return data;
+    }
+}
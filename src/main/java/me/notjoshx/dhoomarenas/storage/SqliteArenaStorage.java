@@ -0,0 +1,186 @@
+package me.notjoshx.dhoomarenas.storage;
+
+import me.notjoshx.dhoomarenas.models.Arena;
+import me.notjoshx.dhoomarenas.models.ArenaSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Backend storing every arena as a row of one embedded SQLite database, using the driver bundled with the server.
+ * Each row keeps the same YAML document the file backend writes, so arenas stay readable and can be migrated freely.
+ * All access goes through one connection and is serialized on this object.
+ */
+public class SqliteArenaStorage implements ArenaStorage {
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS arenas ("
+            + "name TEXT NOT NULL PRIMARY KEY, "
+            + "max_players INTEGER NOT NULL, "
+            + "wait_time_seconds INTEGER NOT NULL, "
+            + "data TEXT NOT NULL, "
+            + "updated_at INTEGER NOT NULL)";
+    private static final String UPSERT = "INSERT INTO arenas (name, max_players, wait_time_seconds, data, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?) ON CONFLICT(name) DO UPDATE SET max_players = excluded.max_players, "
+            + "wait_time_seconds = excluded.wait_time_seconds, data = excluded.data, updated_at = excluded.updated_at";
+
+    private final File databaseFile;
+    private Connection connection;
+
+    /**
+     * Create a new SQLite backend
+     * @param databaseFile Database file
+     */
+    public SqliteArenaStorage(File databaseFile) {
+        this.databaseFile = databaseFile;
+    }
+
+    @Override
+    public String getType() {
+        return "sqlite";
+    }
+
+    @Override
+    public synchronized void open() throws IOException {
+        if (connection != null) {
+            return;
+        }
+
+        try {
+            Class.forName("org.sqlite.JDBC");
+            connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+            try (Statement statement = connection.createStatement()) {
+                // WAL keeps readers unblocked while a batch is written and survives crashes mid-write
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                statement.execute(CREATE_TABLE);
+            }
+        } catch (ClassNotFoundException | SQLException e) {
+            close();
+            throw new IOException("Could not open " + databaseFile.getName(), e);
+        }
+    }
+
+    @Override
+    public synchronized List<String> listArenas() throws IOException {
+        List<String> names = new ArrayList<>();
+        try (Statement statement = connection().createStatement();
+             ResultSet result = statement.executeQuery("SELECT name FROM arenas ORDER BY name")) {
+            while (result.next()) {
+                names.add(result.getString(1));
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not list arenas", e);
+        }
+        return names;
+    }
+
+    @Override
+    public Arena load(String name) throws IOException {
+        String data;
+        synchronized (this) {
+            try (PreparedStatement statement = connection().prepareStatement("SELECT data FROM arenas WHERE name = ?")) {
+                statement.setString(1, name);
+                try (ResultSet result = statement.executeQuery()) {
+                    if (!result.next()) {
+                        return null;
+                    }
+                    data = result.getString(1);
+                }
+            } catch (SQLException e) {
+                throw new IOException("Could not load arena " + name, e);
+            }
+        }
+
+        // Parse outside the lock so parallel loaders only queue up for the lookup itself
+        return new Arena(name, null, data);
+    }
+
+    @Override
+    public Arena create(String name) throws IOException {
+        Arena arena = load(name);
+        // New arenas are inserted by the save queue's next flush
+        return arena != null ? arena : new Arena(name, null, "");
+    }
+
+    @Override
+    public synchronized void write(List<SerializedArena> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Connection connection = connection();
+        long now = System.currentTimeMillis();
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+                for (SerializedArena entry : batch) {
+                    ArenaSnapshot snapshot = entry.getSnapshot();
+                    statement.setString(1, entry.getArena().getName());
+                    statement.setInt(2, snapshot.getMaxPlayers());
+                    statement.setInt(3, snapshot.getWaitTimeSeconds());
+                    statement.setString(4, entry.getData());
+                    statement.setLong(5, now);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollback) {
+                e.addSuppressed(rollback);
+            }
+            throw new IOException("Could not write " + batch.size() + " arenas", e);
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean delete(Arena arena) throws IOException {
+        try (PreparedStatement statement = connection().prepareStatement("DELETE FROM arenas WHERE name = ?")) {
+            statement.setString(1, arena.getName());
+            statement.executeUpdate();
+            // An arena that was never flushed has no row, which still counts as deleted
+            return true;
+        } catch (SQLException e) {
+            throw new IOException("Could not delete arena " + arena.getName(), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (connection == null) {
+            return;
+        }
+
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+        connection = null;
+    }
+
+    /**
+     * Get the open connection
+     * @return Connection
+     * @throws IOException If the backend has not been opened
+     */
+    private Connection connection() throws IOException {
+        if (connection == null) {
+            throw new IOException(databaseFile.getName() + " is not open");
+        }
+        return connection;
+    }
+}
@@ -0,0 +1,154 @@
+package me.notjoshx.dhoomarenas.storage;
+
+import me.notjoshx.dhoomarenas.models.Arena;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Default backend storing one human-readable YAML file per arena
+ */
+public class YamlArenaStorage implements ArenaStorage {
+    private static final String EXTENSION = ".yml";
+
+    private final File folder;
+
+    /**
+     * Create a new YAML backend
+     * @param folder Folder holding the arena files
+     */
+    public YamlArenaStorage(File folder) {
+        this.folder = folder;
+    }
+
+    @Override
+    public String getType() {
+        return "yaml";
+    }
+
+    @Override
+    public void open() throws IOException {
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("Could not create " + folder);
+        }
+    }
+
+    @Override
+    public List<String> listArenas() {
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (files == null) {
+            return Collections.emptyList();
+        }
+
+        List<String> names = new ArrayList<>(files.length);
+        for (File file : files) {
+            names.add(getArenaName(file));
+        }
+        return names;
+    }
+
+    @Override
+    public Arena load(String name) {
+        File file = getFile(name);
+        return file.isFile() ? new Arena(name, file) : null;
+    }
+
+    @Override
+    public Arena create(String name) throws IOException {
+        File file = getFile(name);
+        if (!file.exists()) {
+            file.createNewFile();
+        }
+        return new Arena(name, file);
+    }
+
+    @Override
+    public void write(List<SerializedArena> batch) throws IOException {
+        IOException failure = null;
+        for (SerializedArena entry : batch) {
+            Arena arena = entry.getArena();
+            File file = getFile(arena.getName());
+            try {
+                write(file, entry.getData());
+            } catch (IOException e) {
+                // Keep writing the other files; one bad file should not hold back the rest
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+                continue;
+            }
+
+            if (file.equals(arena.getConfigFile())) {
+                arena.setFileStamp(file.length(), file.lastModified());
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public boolean delete(Arena arena) {
+        // An arena that was never flushed has no file, which still counts as deleted
+        File file = getFile(arena.getName());
+        return file.delete() || !file.exists();
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Get the folder holding the arena files
+     * @return Arenas folder
+     */
+    public File getFolder() {
+        return folder;
+    }
+
+    /**
+     * Get the file of an arena
+     * @param name Arena name
+     * @return Arena file, which may not exist
+     */
+    public File getFile(String name) {
+        return new File(folder, name + EXTENSION);
+    }
+
+    /**
+     * Get the arena name of a file
+     * @param file Arena file
+     * @return Arena name
+     */
+    public static String getArenaName(File file) {
+        String name = file.getName();
+        return name.endsWith(EXTENSION) ? name.substring(0, name.length() - EXTENSION.length()) : name;
+    }
+
+    /**
+     * Write a file through a temporary file so a crash never leaves it half written
+     * @param file Target file
+     * @param data File contents
+     * @throws IOException If the file could not be written
+     */
+    private static void write(File file, String data) throws IOException {
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        Files.write(temp, data.getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package me.notjoshx.dhoomarenas.teleport;
+
+import me.notjoshx.dhoomarenas.DhoomArenas;
+import me.notjoshx.dhoomarenas.scheduler.WorkPriority;
+import me.notjoshx.dhoomarenas.scheduler.WorkUnit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Teleports groups of players at once: all destination chunks are loaded asynchronously up front,
+ * then the teleports are spread over as many ticks as needed to stay within a per-tick time budget.
+ * The teleports run at high priority on the plugin's work scheduler.
+ */
+public class BatchTeleporter {
+    private final DhoomArenas plugin;
+    private final long budgetNanos;
+
+    /**
+     * Create a new batch teleporter
+     * @param plugin Plugin instance
+     * @param budgetMillis Milliseconds per tick that one batch may spend starting teleports, within the scheduler's budget
+     */
+    public BatchTeleporter(DhoomArenas plugin, double budgetMillis) {
+        this.plugin = plugin;
+        this.budgetNanos = (long) (Math.max(0.1D, budgetMillis) * 1_000_000L);
+    }
+
+    /**
+     * Teleport each player to its target location.
+     * Must be called from the main thread; the futures complete on the main thread.
+     * @param players Players to teleport
+     * @param targets Target location for each player, in the same order
+     * @return Future for each player, completing with true if the player was teleported
+     */
+    public Map<Player, CompletableFuture<Boolean>> teleport(List<? extends Player> players, List<Location> targets) {
+        Map<Player, CompletableFuture<Boolean>> results = new LinkedHashMap<>();
+        List<Player> queuedPlayers = new ArrayList<>(players.size());
+        List<Location> queuedTargets = new ArrayList<>(players.size());
+        Set<String> chunkKeys = new HashSet<>();
+        List<CompletableFuture<Chunk>> chunkLoads = new ArrayList<>();
+
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            Location target = i < targets.size() ? targets.get(i) : null;
+            if (target == null || target.getWorld() == null) {
+                results.put(player, CompletableFuture.completedFuture(false));
+                continue;
+            }
+
+            results.put(player, new CompletableFuture<>());
+            queuedPlayers.add(player);
+            queuedTargets.add(target);
+
+            World world = target.getWorld();
+            int chunkX = target.getBlockX() >> 4;
+            int chunkZ = target.getBlockZ() >> 4;
+            if (chunkKeys.add(world.getName() + ":" + chunkX + ":" + chunkZ)) {
+                chunkLoads.add(world.getChunkAtAsync(chunkX, chunkZ));
+            }
+        }
+
+        if (queuedPlayers.isEmpty()) {
+            return results;
+        }
+
+        CompletableFuture.allOf(chunkLoads.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, throwable) ->
+                plugin.getScheduler().submit("batch teleport", WorkPriority.HIGH, new TeleportPass(queuedPlayers, queuedTargets, results)));
+        return results;
+    }
+
+    /**
+     * Starts queued teleports across ticks under the time budget
+     */
+    private final class TeleportPass implements WorkUnit {
+        private final List<Player> players;
+        private final List<Location> targets;
+        private final Map<Player, CompletableFuture<Boolean>> results;
+        private int next;
+
+        private TeleportPass(List<Player> players, List<Location> targets, Map<Player, CompletableFuture<Boolean>> results) {
+            this.players = players;
+            this.targets = targets;
+            this.results = results;
+        }
+
+        @Override
+        public boolean runSlice(long deadlineNanos) {
+            long deadline = Math.min(deadlineNanos, System.nanoTime() + budgetNanos);
+            do {
+                Player player = players.get(next);
+                CompletableFuture<Boolean> result = results.get(player);
+                if (player.isOnline()) {
+                    player.teleportAsync(targets.get(next)).whenComplete((success, throwable) ->
+                            result.complete(throwable == null && Boolean.TRUE.equals(success)));
+                } else {
+                    result.complete(false);
+                }
+                next++;
+            } while (next < players.size() && System.nanoTime() < deadline);
+            return next >= players.size();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package me.notjoshx.dhoomarenas.teleport;
+
+import org.bukkit.Location;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How players of a team are assigned to an arena's spawn points.
+ * Every spawn point is used once before any is reused.
+ */
+public enum SpawnStrategy {
+    /**
+     * Assign spawn points in ascending number order
+     */
+    ROUND_ROBIN {
+        @Override
+        public List<Location> order(List<Location> spawnPoints) {
+            return new ArrayList<>(spawnPoints);
+        }
+    },
+
+    /**
+     * Assign spawn points in random order
+     */
+    RANDOM {
+        @Override
+        public List<Location> order(List<Location> spawnPoints) {
+            List<Location> ordered = new ArrayList<>(spawnPoints);
+            Collections.shuffle(ordered, ThreadLocalRandom.current());
+            return ordered;
+        }
+    },
+
+    /**
+     * Start at the lowest spawn point, then always pick the one farthest from all spawn points already picked
+     */
+    FARTHEST_APART {
+        @Override
+        public List<Location> order(List<Location> spawnPoints) {
+            int count = spawnPoints.size();
+            List<Location> ordered = new ArrayList<>(count);
+            if (count == 0) {
+                return ordered;
+            }
+
+            // Squared distance from each spawn point to the closest picked one
+            double[] closest = new double[count];
+            boolean[] picked = new boolean[count];
+            int next = 0;
+            for (int round = 0; round < count; round++) {
+                picked[next] = true;
+                Location chosen = spawnPoints.get(next);
+                ordered.add(chosen);
+
+                int farthest = -1;
+                for (int i = 0; i < count; i++) {
+                    if (picked[i]) {
+                        continue;
+                    }
+                    double distance = distanceSquared(chosen, spawnPoints.get(i));
+                    closest[i] = round == 0 ? distance : Math.min(closest[i], distance);
+                    if (farthest == -1 || closest[i] > closest[farthest]) {
+                        farthest = i;
+                    }
+                }
+                next = farthest;
+            }
+            return ordered;
+        }
+    };
+
+    /**
+     * Order spawn points in the sequence they should be handed out
+     * @param spawnPoints Spawn points ordered by number
+     * @return Spawn points in assignment order
+     */
+    public abstract List<Location> order(List<Location> spawnPoints);
+
+    /**
+     * Assign a spawn point to each player, cycling through the spawn points when there are more players
+     * @param spawnPoints Spawn points ordered by number
+     * @param playerCount Number of players
+     * @return Spawn point for each player, or an empty list if there are no spawn points
+     */
+    public List<Location> assign(List<Location> spawnPoints, int playerCount) {
+        List<Location> ordered = order(spawnPoints);
+        List<Location> assigned = new ArrayList<>(playerCount);
+        if (ordered.isEmpty()) {
+            return assigned;
+        }
+
+        for (int i = 0; i < playerCount; i++) {
+            assigned.add(ordered.get(i % ordered.size()));
+        }
+        return assigned;
+    }
+
+    private static double distanceSquared(Location a, Location b) {
+        if (a.getWorld() != b.getWorld()) {
+            return Double.MAX_VALUE;
+        }
+        return a.distanceSquared(b);
+    }
+}